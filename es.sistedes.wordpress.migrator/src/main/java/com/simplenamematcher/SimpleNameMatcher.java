@@ -27,6 +27,9 @@ package com.simplenamematcher;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
 
 // Created by Álvaro López-Müller 2019
 // Modified by A. Gómez 2023
@@ -38,6 +41,70 @@ public class SimpleNameMatcher {
 	private static final double fullSeparationWeight = 0.5;
 	private static final double changeInletterWeight = 1.2;
 
+	// Symbols allowed in the names besides the characters of the Latin script.
+	private static final String permittedSymbols = "|-‒–—―‑⁃ '´.,’‘";
+	private static final String permittedSymbolsWithThreshold = "|- '´.,’‘";
+
+	// Dashes that are normalized to a plain hyphen.
+	private static final String dashes = "‒–—―-‑⁃";
+
+	// Similarities are rounded to two decimals, so a partial distance can only be
+	// discarded if it is clearly below the threshold.
+	private static final double cutoffMargin = 0.01;
+
+	// Plain (i.e., without diacritics) version of each char, filled lazily: 0 means
+	// not computed yet, -1 means that the char has no plain version, and any other
+	// value is the plain char plus one.
+	private static final int[] plainChars = new int[Character.MAX_VALUE + 1];
+
+	private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Per-thread buffers reused across comparisons, so that comparing names does
+	 * not allocate memory (except for the rounding of the result).
+	 */
+	private static final class Buffers {
+		private char[] name1 = new char[64];
+		private char[] name2 = new char[64];
+		private char[] plain1 = new char[64];
+		private char[] plain2 = new char[64];
+		private double[] previousRow = new double[64];
+		private double[] currentRow = new double[64];
+
+		private void ensureCapacity(int length) {
+			if (name1.length < length) {
+				name1 = new char[length];
+			}
+			if (name2.length < length) {
+				name2 = new char[length];
+			}
+		}
+
+		private void ensureRowCapacity(int length) {
+			if (previousRow.length < length) {
+				plain1 = new char[length];
+				plain2 = new char[length];
+				previousRow = new double[length];
+				currentRow = new double[length];
+			}
+		}
+	}
+
+	/**
+	 * Characters of the Latin script in the Basic Multilingual Plane, computed on
+	 * first use.
+	 */
+	private static final class LatinChars {
+		private static final BitSet chars = new BitSet(Character.MAX_VALUE + 1);
+		static {
+			for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+				if (Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN) {
+					chars.set(c);
+				}
+			}
+		}
+	}
+
 	/**
 	 * It will return a double between 0 and 100 representing the score or
 	 * percentage of similarity. If the similarity cannot be checked for any reason
@@ -55,6 +122,26 @@ public class SimpleNameMatcher {
 		}
 	}
 
+	/**
+	 * Same as {@link #compareNamesSafe(String, String)}, but it will return 0.0f
+	 * if the similarity is below the threshold. Since the matching process ends as
+	 * soon as the threshold cannot be reached, this is much faster when looking for
+	 * the best match among many names.
+	 * 
+	 * @param name1
+	 * @param name2
+	 * @param threshold
+	 * @return
+	 */
+	public static double compareNamesSafe(String name1, String name2, double threshold) {
+		try {
+			double result = compare(name1, name2, permittedSymbols, 0, true, threshold - cutoffMargin);
+			return result >= threshold ? result : 0.0d;
+		} catch (Exception e) {
+			return 0.0d;
+		}
+	}
+
 	/**
 	 * It will return a double between 0 and 100 representing the score or
 	 * percentage of similarity.
@@ -65,149 +152,7 @@ public class SimpleNameMatcher {
 	 * @throws NonPermittedSymbolException
 	 */
 	public static double compareNames(String name1, String name2) throws NonPermittedSymbolException {
-
-		// Avoids non-latin names and forbidden characters.
-		if (!name1.matches("^[\\p{IsLatin}|\\-\\‒\\–\\—\\―\\-\\‑\\⁃| '|´|\\.|,|’|‘]*$")
-				|| !name2.matches("^[\\p{IsLatin}|\\-\\‒\\–\\—\\―\\-\\‑\\⁃| '|´|\\.|,|’|‘]*$")) {
-			NonPermittedSymbolException e = new NonPermittedSymbolException();
-			throw e;
-		}
-
-		// Initial clean up of the names.
-		name1 = cleanName(name1);
-		name2 = cleanName(name2);
-
-		String biggerName, smallerName;
-
-		String name1WithoutSeparations = removeSeparators(name1);
-		String name2WithoutSeparations = removeSeparators(name2);
-
-		double impactFactor; // The bigger it is the name, the less impact have changes in it, and that is
-								// reflected by this impact factor.
-
-		if (name1WithoutSeparations.length() >= name2WithoutSeparations.length()) {
-
-			biggerName = name1;
-			smallerName = name2;
-			impactFactor = (1.0 / name1WithoutSeparations.length()) * 100;
-
-		} else {
-
-			biggerName = name2;
-			smallerName = name1;
-			impactFactor = (1.0 / name2WithoutSeparations.length()) * 100;
-
-		}
-
-		int differenceOfLength = biggerName.length() - smallerName.length();
-
-		if (100 - differenceOfLength * impactFactor * changeInletterWeight < 0) { // Saves time and avoids unnecessary operations. Zero is the minimum possible
-																					// result.
-			return 0;
-		}
-
-		// Starts using a modified version of the Minimum Edit Distance (Levenshtein
-		// Distance) algorithm to calculate the result.
-		int totalLen1 = biggerName.length();
-		int totalLen2 = smallerName.length();
-
-		double dp[][] = new double[totalLen2 + 1][totalLen1 + 1];
-
-		for (int i = 0; i <= totalLen2; i++) {
-
-			double mindDistanceRow = Double.MAX_VALUE; // Keeps the minimum distance in each row.
-
-			for (int j = 0; j <= totalLen1; j++) {
-
-				char c1 = 0;
-				char c2 = 0;
-				char c1Plain = 0;
-				char c2Plain = 0;
-
-				if (i != 0 && j != 0) {
-
-					c1 = biggerName.charAt(j - 1);
-					c2 = smallerName.charAt(i - 1);
-					c1Plain = removeDiacritics(c1);
-					c2Plain = removeDiacritics(c2);
-
-				}
-
-				if (i == 0) {
-
-					dp[i][j] = j * impactFactor * changeInletterWeight;
-
-				} else if (j == 0) {
-
-					dp[i][j] = i * impactFactor * changeInletterWeight;
-
-				} else if (c1Plain == c2Plain) {
-
-					dp[i][j] = dp[i - 1][j - 1];
-
-					if (c1 != c2) { // Difference in diacritic.
-						dp[i][j] += impactFactor * changeInDiacriticWeight;
-					}
-
-				} else {
-
-					if (isSeparator(c1) || isSeparator(c2)) { // Difference in separation.
-
-						double weight = 0;
-
-						if (c1 == '-' && c2 != ' ' || c1 != ' ' && c2 == '-' || c1 == ' ' && c2 == '-' || c1 == '-' && c2 == ' ') {
-
-							weight = halfSeparationWeight;
-
-						} else if (c1 == ' ' && c2 != '-' || c1 != '-' && c2 == ' ') {
-
-							weight = fullSeparationWeight;
-
-						}
-
-						double insert = dp[i - 1][j] + impactFactor * weight;
-						double delete = dp[i][j - 1] + impactFactor * weight;
-						double replace = dp[i - 1][j - 1] + impactFactor * weight;
-
-						dp[i][j] = min(insert, delete, replace);
-
-					} else { // Difference in letter.
-
-						double insert = dp[i - 1][j] + impactFactor * changeInletterWeight;
-						double delete = dp[i][j - 1] + impactFactor * changeInletterWeight;
-						double replace = dp[i - 1][j - 1] + impactFactor * changeInletterWeight;
-
-						dp[i][j] = min(insert, delete, replace);
-
-					}
-
-				}
-
-				if (dp[i][j] < mindDistanceRow) {
-
-					mindDistanceRow = dp[i][j];
-
-				}
-
-			}
-
-			if (100 - mindDistanceRow <= 0) { // Saves time and avoids unnecessary operations. Zero is the minimum possible
-												// result.
-				return 0;
-			}
-
-		}
-
-		double distance = dp[totalLen2][totalLen1];
-
-		if (100 - distance < 0) { // Zero is the minimum possible result.
-			return 0;
-		}
-
-		double result = 100 - distance;
-		result = round(result, 2);
-		return result;
-
+		return compare(name1, name2, permittedSymbols, 0, true, Double.NEGATIVE_INFINITY);
 	}
 
 	/**
@@ -231,50 +176,81 @@ public class SimpleNameMatcher {
 			throw e;
 		}
 
+		return compare(name1, name2, permittedSymbolsWithThreshold, threshold, false, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Compares the names using a modified version of the Minimum Edit Distance
+	 * (Levenshtein Distance) algorithm, keeping only two rows of the matrix.
+	 * 
+	 * @param threshold        Minimum result, lower results are returned as 0
+	 * @param inclusiveRowExit Whether a row whose minimum distance leaves exactly
+	 *                         <code>threshold</code> also ends the process
+	 * @param cutoff           Results that are known to be below the cutoff are
+	 *                         returned as 0 (without changing any other result)
+	 */
+	private static double compare(String name1, String name2, String symbols, double threshold, boolean inclusiveRowExit, double cutoff)
+			throws NonPermittedSymbolException {
+
 		// Avoids non-latin names and forbidden characters.
-		if (!name1.matches("^[\\p{IsLatin}|\\-| '|´|\\.|,|’|‘]*$") || !name2.matches("^[\\p{IsLatin}|\\-| '|´|\\.|,|’|‘]*$")) {
+		if (!isPermitted(name1, symbols) || !isPermitted(name2, symbols)) {
 			NonPermittedSymbolException e = new NonPermittedSymbolException();
 			throw e;
 		}
 
 		// Initial clean up of the names.
-		name1 = cleanName(name1);
-		name2 = cleanName(name2);
+		Buffers b = buffers.get();
+		b.ensureCapacity(Math.max(name1.length(), name2.length()) * 2 + 1);
+		int length1 = cleanName(name1, b, true);
+		int length2 = cleanName(name2, b, false);
 
-		String biggerName, smallerName;
+		char[] biggerName, smallerName;
 
-		String name1WithoutSeparations = removeSeparators(name1);
-		String name2WithoutSeparations = removeSeparators(name2);
+		int name1WithoutSeparations = countNonSeparators(b.name1, length1);
+		int name2WithoutSeparations = countNonSeparators(b.name2, length2);
 
-		double normalizationFactor;
+		double impactFactor; // The bigger it is the name, the less impact have changes in it, and that is
+								// reflected by this impact factor.
+		int totalLen1, totalLen2;
 
-		if (name1WithoutSeparations.length() >= name2WithoutSeparations.length()) {
+		if (name1WithoutSeparations >= name2WithoutSeparations) {
 
-			biggerName = name1;
-			smallerName = name2;
-			normalizationFactor = (1.0 / name1WithoutSeparations.length()) * 100;
+			biggerName = b.name1;
+			smallerName = b.name2;
+			totalLen1 = length1;
+			totalLen2 = length2;
+			impactFactor = (1.0 / name1WithoutSeparations) * 100;
 
 		} else {
 
-			biggerName = name2;
-			smallerName = name1;
-			normalizationFactor = (1.0 / name2WithoutSeparations.length()) * 100;
+			biggerName = b.name2;
+			smallerName = b.name1;
+			totalLen1 = length2;
+			totalLen2 = length1;
+			impactFactor = (1.0 / name2WithoutSeparations) * 100;
 
 		}
 
-		int differenceOfLength = biggerName.length() - smallerName.length();
+		int differenceOfLength = totalLen1 - totalLen2;
 
-		if (100 - differenceOfLength * normalizationFactor * changeInletterWeight < threshold) { // If the length difference exceeds the threshold a zero is
-																									// returned to save time and avoid unnecessary operations.
+		if (100 - differenceOfLength * impactFactor * changeInletterWeight < threshold) { // Saves time and avoids unnecessary operations.
 			return 0;
 		}
 
-		// Starts using a modified version of the Minimum Edit Distance (Levenshtein
-		// Distance) algorithm to calculate the result.
-		int totalLen1 = biggerName.length();
-		int totalLen2 = smallerName.length();
+		// The name with more letters may still be the shorter one (e.g., when the
+		// other one is mostly separators).
+		b.ensureRowCapacity(Math.max(totalLen1, totalLen2) + 1);
+		char[] biggerPlain = b.plain1;
+		char[] smallerPlain = b.plain2;
+		for (int j = 0; j < totalLen1; j++) {
+			biggerPlain[j] = removeDiacritics(biggerName[j]);
+		}
+		for (int i = 0; i < totalLen2; i++) {
+			smallerPlain[i] = removeDiacritics(smallerName[i]);
+		}
 
-		double dp[][] = new double[totalLen2 + 1][totalLen1 + 1];
+		double[] previous = b.previousRow;
+		double[] current = b.currentRow;
 
 		for (int i = 0; i <= totalLen2; i++) {
 
@@ -282,88 +258,88 @@ public class SimpleNameMatcher {
 
 			for (int j = 0; j <= totalLen1; j++) {
 
-				char c1 = 0;
-				char c2 = 0;
-				char c1Plain = 0;
-				char c2Plain = 0;
+				double distance;
 
-				if (i != 0 && j != 0) {
+				if (i == 0) {
 
-					c1 = biggerName.charAt(j - 1);
-					c2 = smallerName.charAt(i - 1);
-					c1Plain = removeDiacritics(c1);
-					c2Plain = removeDiacritics(c2);
+					distance = j * impactFactor * changeInletterWeight;
 
-				}
+				} else if (j == 0) {
 
-				if (i == 0) {
+					distance = i * impactFactor * changeInletterWeight;
 
-					dp[i][j] = j * normalizationFactor * changeInletterWeight;
+				} else {
 
-				} else if (j == 0) {
+					char c1 = biggerName[j - 1];
+					char c2 = smallerName[i - 1];
 
-					dp[i][j] = i * normalizationFactor * changeInletterWeight;
+					if (biggerPlain[j - 1] == smallerPlain[i - 1]) {
 
-				} else if (c1Plain == c2Plain) {
+						distance = previous[j - 1];
 
-					dp[i][j] = dp[i - 1][j - 1];
+						if (c1 != c2) { // Difference in diacritic.
+							distance += impactFactor * changeInDiacriticWeight;
+						}
 
-					if (c1 != c2) { // Difference in diacritic.
-						dp[i][j] += normalizationFactor * changeInDiacriticWeight;
-					}
+					} else {
 
-				} else {
+						double weight;
 
-					if (isSeparator(c1) || isSeparator(c2)) { // Difference in separation.
+						if (isSeparator(c1) || isSeparator(c2)) { // Difference in separation.
 
-						double weight = 0;
+							weight = 0;
 
-						if (c1 == '-' && c2 != ' ' || c1 != ' ' && c2 == '-' || c1 == ' ' && c2 == '-' || c1 == '-' && c2 == ' ') {
+							if (c1 == '-' && c2 != ' ' || c1 != ' ' && c2 == '-' || c1 == ' ' && c2 == '-' || c1 == '-' && c2 == ' ') {
 
-							weight = halfSeparationWeight;
+								weight = halfSeparationWeight;
 
-						} else if (c1 == ' ' && c2 != '-' || c1 != '-' && c2 == ' ') {
+							} else if (c1 == ' ' && c2 != '-' || c1 != '-' && c2 == ' ') {
 
-							weight = fullSeparationWeight;
+								weight = fullSeparationWeight;
 
-						}
+							}
 
-						double insert = dp[i - 1][j] + normalizationFactor * weight;
-						double delete = dp[i][j - 1] + normalizationFactor * weight;
-						double replace = dp[i - 1][j - 1] + normalizationFactor * weight;
+						} else { // Difference in letter.
 
-						dp[i][j] = min(insert, delete, replace);
+							weight = changeInletterWeight;
 
-					} else { // Difference in letter.
+						}
 
-						double insert = dp[i - 1][j] + normalizationFactor * changeInletterWeight;
-						double delete = dp[i][j - 1] + normalizationFactor * changeInletterWeight;
-						double replace = dp[i - 1][j - 1] + normalizationFactor * changeInletterWeight;
+						double insert = previous[j] + impactFactor * weight;
+						double delete = current[j - 1] + impactFactor * weight;
+						double replace = previous[j - 1] + impactFactor * weight;
 
-						dp[i][j] = min(insert, delete, replace);
+						distance = min(insert, delete, replace);
 
 					}
 
 				}
 
-				if (dp[i][j] < mindDistanceRow) {
+				current[j] = distance;
+
+				if (distance < mindDistanceRow) {
 
-					mindDistanceRow = dp[i][j];
+					mindDistanceRow = distance;
 
 				}
 
 			}
 
-			if (100 - mindDistanceRow < threshold) { // Saves time and avoids unnecessary operations. If the threshold is exceeded,
-														// the method returns a zero.
+			if ((inclusiveRowExit ? 100 - mindDistanceRow <= threshold : 100 - mindDistanceRow < threshold) || 100 - mindDistanceRow < cutoff) {
+				// Saves time and avoids unnecessary operations: the distance can only grow in the
+				// following rows.
 				return 0;
 			}
 
+			double[] row = previous;
+			previous = current;
+			current = row;
+
 		}
 
-		double distance = dp[totalLen2][totalLen1];
+		double distance = previous[totalLen1];
 
-		if (100 - distance < threshold) { // If the threshold is exceeded, the method returns a zero.
+		if (100 - distance < threshold) { // Zero (or the threshold) is the minimum possible result.
 			return 0;
 		}
 
@@ -373,19 +349,109 @@ public class SimpleNameMatcher {
 
 	}
 
-	private static String cleanName(String name) {
+	private static boolean isPermitted(String name, String symbols) {
+		for (int i = 0; i < name.length();) {
+			int c = name.codePointAt(i);
+			if (symbols.indexOf(c) < 0 && !(c <= Character.MAX_VALUE ? LatinChars.chars.get(c)
+					: Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN)) {
+				return false;
+			}
+			i += Character.charCount(c);
+		}
+		return true;
+	}
+
+	/**
+	 * Cleans the given name into the first (or second) name buffer, returning its
+	 * length. Names in the "Surname, Name" form are reversed, newlines are removed,
+	 * consecutive spaces are collapsed, dashes are normalized, and the name is
+	 * trimmed and lower cased.
+	 */
+	private static int cleanName(String name, Buffers b, boolean first) {
+
+		char[] buffer = first ? b.name1 : b.name2;
+		int length = 0;
+
+		int comma = name.indexOf(',');
+		if (comma >= 0) {
+			// Same as taking the two first items of name.split(",")
+			int nextComma = name.indexOf(',', comma + 1);
+			int end = nextComma >= 0 ? nextComma : name.length();
+			boolean hasMoreItems = false;
+			for (int i = comma + 1; i < name.length() && !hasMoreItems; i++) {
+				hasMoreItems = name.charAt(i) != ',';
+			}
+			if (!hasMoreItems) {
+				throw new ArrayIndexOutOfBoundsException(1);
+			}
+			length = append(buffer, length, name, comma + 1, end);
+			buffer[length++] = ' ';
+			length = append(buffer, length, name, 0, comma);
+		} else {
+			length = append(buffer, length, name, 0, name.length());
+		}
+
+		// Collapse the spaces and normalize the dashes
+		int collapsed = 0;
+		for (int i = 0; i < length; i++) {
+			char c = buffer[i];
+			if (isWhitespace(c) && i + 1 < length && isWhitespace(buffer[i + 1])) {
+				while (i + 1 < length && isWhitespace(buffer[i + 1])) {
+					i++;
+				}
+				c = ' ';
+			} else if (dashes.indexOf(c) >= 0) {
+				c = '-';
+			}
+			buffer[collapsed++] = c;
+		}
+		length = collapsed;
+
+		// Trim
+		int start = 0;
+		while (start < length && buffer[start] <= ' ') {
+			start++;
+		}
+		while (length > start && buffer[length - 1] <= ' ') {
+			length--;
+		}
+		if (start > 0) {
+			System.arraycopy(buffer, start, buffer, 0, length - start);
+			length -= start;
+		}
+
+		return toLowerCase(buffer, length, b, first);
+	}
+
+	private static int append(char[] buffer, int length, String name, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = name.charAt(i);
+			if (c != '\n') {
+				buffer[length++] = c;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Lower cases the name in place, falling back to {@link String#toLowerCase()}
+	 * when the result may depend on the locale or may have a different length
+	 */
+	private static int toLowerCase(char[] buffer, int length, Buffers b, boolean first) {
 
-		String cleanName = name;
+		boolean simple = !isLocaleSensitive(Locale.getDefault());
+		for (int i = 0; i < length && simple; i++) {
+			simple = buffer[i] != 'İ' && !Character.isSurrogate(buffer[i]);
+		}
 
-		if (cleanName.contains(",")) {
-			String[] splittedName = cleanName.split(",");
-			cleanName = splittedName[1] + " " + splittedName[0];
+		if (simple) {
+			for (int i = 0; i < length; i++) {
+				buffer[i] = Character.toLowerCase(buffer[i]);
+			}
+			return length;
 		}
 
-		cleanName = cleanName.replaceAll("\\n", "");
-		cleanName = cleanName.replaceAll("\\s{2,}", " ");
-		cleanName = cleanName.replaceAll("[\\‒\\–\\—\\―\\-\\‑\\⁃]", "-");
-		cleanName = cleanName.trim();
+		String cleanName = new String(buffer, 0, length);
 		int lengthBeforeConversion = cleanName.length();
 		cleanName = cleanName.toLowerCase();
 		int lengthAfterConversion = cleanName.length();
@@ -395,27 +461,56 @@ public class SimpleNameMatcher {
 			cleanName = fixToLowerCaseError(cleanName);
 		}
 
-		return cleanName;
+		if (cleanName.length() > buffer.length) {
+			buffer = Arrays.copyOf(buffer, cleanName.length());
+			if (first) {
+				b.name1 = buffer;
+			} else {
+				b.name2 = buffer;
+			}
+		}
+		cleanName.getChars(0, cleanName.length(), buffer, 0);
+		return cleanName.length();
 	}
 
-	private static char removeDiacritics(char c) {
+	private static boolean isLocaleSensitive(Locale locale) {
+		String language = locale.getLanguage();
+		return "tr".equals(language) || "az".equals(language) || "lt".equals(language);
+	}
 
-		String s = String.valueOf(c);
+	private static char removeDiacritics(char c) {
 
-		s = Normalizer.normalize(s, Normalizer.Form.NFD);
-		s = s.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+		int plain = plainChars[c];
 
-		return s.charAt(0);
+		if (plain == 0) {
+			String s = String.valueOf(c);
+			s = Normalizer.normalize(s, Normalizer.Form.NFD);
+			s = s.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+			plain = s.isEmpty() ? -1 : s.charAt(0) + 1;
+			plainChars[c] = plain;
+		}
 
-	}
+		if (plain < 0) {
+			throw new StringIndexOutOfBoundsException(0);
+		}
 
-	private static String removeSeparators(String n) {
+		return (char) (plain - 1);
 
-		n = n.replaceAll("\\s+", "");
-		n = n.replaceAll("-", "");
+	}
 
-		return n;
+	private static boolean isWhitespace(char c) {
+		// Same as \s in regular expressions
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
 
+	private static int countNonSeparators(char[] name, int length) {
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			if (!isWhitespace(name[i]) && name[i] != '-') {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	private static double min(double insert, double delete, double replace) {
@@ -448,22 +543,21 @@ public class SimpleNameMatcher {
 
 	private static String fixToLowerCaseError(String s) {
 
+		StringBuilder sb = new StringBuilder(s.length());
+
 		for (int i = 0; i < s.length(); i++) {
 
 			char c = s.charAt(i);
 
-			if (Character.toString(c).matches("\\p{InCombiningDiacriticalMarks}")) {
+			if (Character.UnicodeBlock.of(c) != Character.UnicodeBlock.COMBINING_DIACRITICAL_MARKS) {
 
-				StringBuilder sb = new StringBuilder(s);
-				sb.deleteCharAt(i);
-				s = sb.toString();
-				i--;
+				sb.append(c);
 
 			}
 
 		}
 
-		return s;
+		return sb.toString();
 	}
 
 }
@@ -29,6 +29,9 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.StringUtils;
 
+import es.sistedes.wordpress.migrator.dsmodel.PdfPrefetcher;
+import es.sistedes.wordpress.migrator.dsmodel.PdfStore;
+import es.sistedes.wordpress.migrator.wpmodel.Crawler;
 import net.handle.hdllib.PublicKeyAuthenticationInfo;
 import net.handle.hdllib.Util;
 
@@ -58,6 +61,24 @@ public class CliLauncher {
 	private static final String PASSWORD_LONG = "password";
 	private static final String WAITING_TIME = "w";
 	private static final String WAITING_TIME_LONG = "waiting-time";
+	private static final String RATE = "r";
+	private static final String RATE_LONG = "rate";
+	private static final String BURST = "b";
+	private static final String BURST_LONG = "burst";
+	private static final String FETCH_THREADS = "f";
+	private static final String FETCH_THREADS_LONG = "fetch-threads";
+	private static final String PREFETCH = "F";
+	private static final String PREFETCH_LONG = "prefetch";
+	private static final String PDF_CACHE_SIZE = "S";
+	private static final String PDF_CACHE_SIZE_LONG = "pdf-cache-size";
+	private static final String STREAM_UPLOADS = "U";
+	private static final String STREAM_UPLOADS_LONG = "stream-uploads";
+	private static final String PRELOAD_AUTHORS = "a";
+	private static final String PRELOAD_AUTHORS_LONG = "preload-authors";
+	private static final String PERSON_FLUSH_INTERVAL = "P";
+	private static final String PERSON_FLUSH_INTERVAL_LONG = "patch-interval";
+	private static final String RELATIONSHIPS_ONLY = "R";
+	private static final String RELATIONSHIPS_ONLY_LONG = "relationships-only";
 	private static final String HANDLE_PREFIX = "h";
 	private static final String HANDLE_PREFIX_LONG = "handle-prefix";
 	private static final String HANDLE_PRIVATE_KEY_FILE = "k";
@@ -70,6 +91,16 @@ public class CliLauncher {
 	private static final String INTERACTIVE_LONG = "interactive";
 	private static final String MIGRATE_DOCS = "m";
 	private static final String MIGRATE_DOCS_LONG = "migrate-docs";
+	private static final String MAX_CONNECTIONS = "n";
+	private static final String MAX_CONNECTIONS_LONG = "max-connections";
+	private static final String TIMEOUT = "T";
+	private static final String TIMEOUT_LONG = "timeout";
+	private static final String THREADS = "j";
+	private static final String THREADS_LONG = "threads";
+	private static final String CACHE_TTL = "C";
+	private static final String CACHE_TTL_LONG = "cache-ttl";
+	private static final String OFFLINE = "O";
+	private static final String OFFLINE_LONG = "offline";
 
 	private static final Options options = new Options();
 
@@ -119,10 +150,31 @@ public class CliLauncher {
 			
 			Migrator migrator = new Migrator(input, output, user, password, prefix, auth);
 
-			if (commandLine.hasOption(WAITING_TIME)) {
+			if (commandLine.hasOption(RATE)) {
+				DelayedStreamOpener.setRate(Double.parseDouble(commandLine.getOptionValue(RATE)), 
+						Integer.parseInt(commandLine.getOptionValue(BURST, "1")));
+			} else if (commandLine.hasOption(WAITING_TIME)) {
 				DelayedStreamOpener.setDelay(Integer.parseInt(commandLine.getOptionValue(WAITING_TIME)));
 			}
 			
+			if (commandLine.hasOption(FETCH_THREADS)) {
+				Crawler.setParallelism(Integer.parseInt(commandLine.getOptionValue(FETCH_THREADS)));
+			}
+			
+			if (commandLine.hasOption(PREFETCH)) {
+				PdfPrefetcher.setParallelism(Integer.parseInt(commandLine.getOptionValue(PREFETCH)));
+			}
+			
+			if (commandLine.hasOption(PDF_CACHE_SIZE)) {
+				PdfStore.setMaxSize(Long.parseLong(commandLine.getOptionValue(PDF_CACHE_SIZE)) * 1024 * 1024);
+			}
+			
+			if (commandLine.hasOption(CACHE_TTL) || commandLine.hasOption(OFFLINE)) {
+				DelayedStreamOpener.setCache(new ResponseCache(
+						Long.parseLong(commandLine.getOptionValue(CACHE_TTL, "-1")), 
+						commandLine.hasOption(OFFLINE)));
+			}
+			
 			if (commandLine.hasOption(START_YEAR)) {
 				migrator.putOption(Migrator.Options.START_YEAR, Integer.parseInt(commandLine.getOptionValue(START_YEAR)));
 			}
@@ -147,6 +199,34 @@ public class CliLauncher {
 				migrator.putOption(Migrator.Options.MIGRATE_DOCUMENTS, commandLine.hasOption(MIGRATE_DOCS));
 			}
 			
+			if (commandLine.hasOption(MAX_CONNECTIONS)) {
+				migrator.putOption(Migrator.Options.MAX_CONNECTIONS, Integer.parseInt(commandLine.getOptionValue(MAX_CONNECTIONS)));
+			}
+			
+			if (commandLine.hasOption(TIMEOUT)) {
+				migrator.putOption(Migrator.Options.TIMEOUT, Integer.parseInt(commandLine.getOptionValue(TIMEOUT)));
+			}
+			
+			if (commandLine.hasOption(THREADS)) {
+				migrator.putOption(Migrator.Options.THREADS, Integer.parseInt(commandLine.getOptionValue(THREADS)));
+			}
+			
+			if (commandLine.hasOption(STREAM_UPLOADS)) {
+				migrator.putOption(Migrator.Options.STREAM_UPLOADS, commandLine.hasOption(STREAM_UPLOADS));
+			}
+			
+			if (commandLine.hasOption(PRELOAD_AUTHORS)) {
+				migrator.putOption(Migrator.Options.PRELOAD_AUTHORS, commandLine.hasOption(PRELOAD_AUTHORS));
+			}
+			
+			if (commandLine.hasOption(RELATIONSHIPS_ONLY)) {
+				migrator.putOption(Migrator.Options.RELATIONSHIPS_ONLY, commandLine.hasOption(RELATIONSHIPS_ONLY));
+			}
+			
+			if (commandLine.hasOption(PERSON_FLUSH_INTERVAL)) {
+				migrator.putOption(Migrator.Options.PERSON_FLUSH_INTERVAL, Integer.parseInt(commandLine.getOptionValue(PERSON_FLUSH_INTERVAL)));
+			}
+			
 			migrator.migrate();
 			
 		} catch (MigrationException e) {
@@ -242,6 +322,23 @@ public class CliLauncher {
 				.desc("Time to wait (in ms) between connections to the Sistedes Digital Library to avoid flooding it (optional, no delay if not set)")
 				.numberOfArgs(1)
 				.build();
+		
+		Option rateOpt = Option
+				.builder(RATE)
+				.longOpt(RATE_LONG)
+				.argName("requests")
+				.desc("Maximum number of requests per second to each host of the Sistedes Digital Library, "
+						+ "automatically reduced if the host is overloaded (optional, overrides --" + WAITING_TIME_LONG + ")")
+				.numberOfArgs(1)
+				.build();
+		
+		Option burstOpt = Option
+				.builder(BURST)
+				.longOpt(BURST_LONG)
+				.argName("requests")
+				.desc("Maximum number of requests that can be sent at once to each host when using --" + RATE_LONG + " (optional, 1 by default)")
+				.numberOfArgs(1)
+				.build();
 
 		Option outputOpt = Option
 				.builder(OUTPUT)
@@ -316,6 +413,109 @@ public class CliLauncher {
 				.desc("Also migrate the Sistedes documents to the target DSpace instance")
 				.numberOfArgs(0)
 				.build();
+		
+		Option maxConnectionsOpt = Option
+				.builder(MAX_CONNECTIONS)
+				.longOpt(MAX_CONNECTIONS_LONG)
+				.argName("connections")
+				.desc("Maximum number of pooled connections to the DSpace Sistedes Digital Library (optional, 10 by default)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option timeoutOpt = Option
+				.builder(TIMEOUT)
+				.longOpt(TIMEOUT_LONG)
+				.argName("seconds")
+				.desc("Connect and response timeout (in s) for the requests to the DSpace Sistedes Digital Library (optional, 300 s by default)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option threadsOpt = Option
+				.builder(THREADS)
+				.longOpt(THREADS_LONG)
+				.argName("threads")
+				.desc("Number of papers of the same track to migrate concurrently (optional, 1 by default; ignored in interactive mode)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option fetchThreadsOpt = Option
+				.builder(FETCH_THREADS)
+				.longOpt(FETCH_THREADS_LONG)
+				.argName("threads")
+				.desc("Number of concurrent requests used to crawl the Wordpress Sistedes Digital Library (optional, 4 by default)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option prefetchOpt = Option
+				.builder(PREFETCH)
+				.longOpt(PREFETCH_LONG)
+				.argName("downloads")
+				.desc("Number of PDF files of the upcoming papers to download concurrently in background "
+						+ "(optional, 4 by default, 0 disables prefetching)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option pdfCacheSizeOpt = Option
+				.builder(PDF_CACHE_SIZE)
+				.longOpt(PDF_CACHE_SIZE_LONG)
+				.argName("megabytes")
+				.desc("Maximum size (in MB) of the downloaded PDF files kept in the 'pdfcache' directory, evicting "
+						+ "the least recently used ones (optional, unlimited by default, curated files are never evicted)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option streamUploadsOpt = Option
+				.builder(STREAM_UPLOADS)
+				.longOpt(STREAM_UPLOADS_LONG)
+				.desc("Stream the PDF files of the papers from the Wordpress Sistedes Digital Library straight into DSpace, "
+						+ "instead of downloading them into the 'pdfcache' directory first (disables prefetching; "
+						+ "files of unknown length are still downloaded first)")
+				.numberOfArgs(0)
+				.build();
+		
+		Option preloadAuthorsOpt = Option
+				.builder(PRELOAD_AUTHORS)
+				.longOpt(PRELOAD_AUTHORS_LONG)
+				.desc("Load all the authors already in DSpace at startup and match the authors of the papers locally, "
+						+ "instead of searching them one by one")
+				.numberOfArgs(0)
+				.build();
+		
+		Option personFlushIntervalOpt = Option
+				.builder(PERSON_FLUSH_INTERVAL)
+				.longOpt(PERSON_FLUSH_INTERVAL_LONG)
+				.argName("seconds")
+				.desc("Time (in s) after which the pending updates of the authors already in DSpace are sent along with the next update, "
+						+ "coalesced into a single update per author; pending updates are also sent after each edition "
+						+ "(optional, 300 s by default, 0 sends each update immediately)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option relationshipsOnlyOpt = Option
+				.builder(RELATIONSHIPS_ONLY)
+				.longOpt(RELATIONSHIPS_ONLY_LONG)
+				.desc("Do not migrate anything, only create the author relationships recorded in the 'relationships.tsv' journal "
+						+ "by previous migrations that were not created (e.g., because the migration was interrupted), "
+						+ "limited to the specified conferences, if any")
+				.numberOfArgs(0)
+				.build();
+		
+		Option cacheTtlOpt = Option
+				.builder(CACHE_TTL)
+				.longOpt(CACHE_TTL_LONG)
+				.argName("seconds")
+				.desc("Cache the responses of the Wordpress Sistedes Digital Library in the 'wpcache' directory, "
+						+ "revalidating them after the specified time (in s, a negative value means never) "
+						+ "(optional, no cache by default)")
+				.numberOfArgs(1)
+				.build();
+		
+		Option offlineOpt = Option
+				.builder(OFFLINE)
+				.longOpt(OFFLINE_LONG)
+				.desc("Read the Wordpress Sistedes Digital Library only from the 'wpcache' directory")
+				.numberOfArgs(0)
+				.build();
 		// @formatter:on
 
 		options.addOption(inputOpt);
@@ -323,6 +523,8 @@ public class CliLauncher {
 		options.addOption(endYearOpt);
 		options.addOption(conferencesOpt);
 		options.addOption(waitingOpt);
+		options.addOption(rateOpt);
+		options.addOption(burstOpt);
 		options.addOption(outputOpt);
 		options.addOption(userOpt);
 		options.addOption(passwordOpt);
@@ -332,6 +534,18 @@ public class CliLauncher {
 		options.addOption(dryRunOpt);
 		options.addOption(interactiveOpt);
 		options.addOption(migrateDocsOpt);
+		options.addOption(maxConnectionsOpt);
+		options.addOption(timeoutOpt);
+		options.addOption(threadsOpt);
+		options.addOption(fetchThreadsOpt);
+		options.addOption(prefetchOpt);
+		options.addOption(pdfCacheSizeOpt);
+		options.addOption(streamUploadsOpt);
+		options.addOption(preloadAuthorsOpt);
+		options.addOption(personFlushIntervalOpt);
+		options.addOption(relationshipsOnlyOpt);
+		options.addOption(cacheTtlOpt);
+		options.addOption(offlineOpt);
 	}
 
 	/**
@@ -342,7 +556,7 @@ public class CliLauncher {
 	 * @param <T>
 	 */
 	private static class OptionComarator<T extends Option> implements Comparator<T> {
-		private static final String OPTS_ORDER = "icseoupwhkxmtd";
+		private static final String OPTS_ORDER = "icseoupwrbfFSUCOnTjaPRhkxmtd";
 
 		@Override
 		public int compare(T o1, T o2) {
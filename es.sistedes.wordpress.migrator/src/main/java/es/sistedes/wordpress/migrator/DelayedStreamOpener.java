@@ -1,30 +1,172 @@
 package es.sistedes.wordpress.migrator;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.text.MessageFormat;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSession;
 
+import org.apache.commons.io.IOUtils;
+
 public final class DelayedStreamOpener {
 
-	private static int delay = 0;
+	private static final int MAX_ATTEMPTS = 5;
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+	private static final int DOWNLOAD_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(60);
+	
+	private static volatile RateLimiter limiter = new RateLimiter(0, 1);
+	
+	private static ResponseCache cache;
 	
-	private static long lastRequest = Long.MIN_VALUE;
+	/**
+	 * A response whose body has been completely read
+	 * 
+	 * @author agomez
+	 *
+	 */
+	public static final class Response {
+		private final byte[] body;
+		private final Function<String, String> headers;
+		
+		private Response(byte[] body, Function<String, String> headers) {
+			this.body = body;
+			this.headers = headers;
+		}
+		
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(body);
+		}
+		
+		public String getHeader(String name) {
+			return headers.apply(name);
+		}
+	}
 	
 	public static InputStream open(URL url) throws IOException {
-		long now = System.currentTimeMillis();
-		if (lastRequest + delay > now) {
+		return fetch(url).getInputStream();
+	}
+	
+	/**
+	 * Like {@link #open(URL)}, but also gives access to the response headers
+	 * 
+	 * @param url
+	 * @return
+	 * @throws IOException
+	 */
+	public static Response fetch(URL url) throws IOException {
+		if (cache == null) {
+			URLConnection connection = connect(url, null);
+			try (InputStream in = connection.getInputStream()) {
+				return new Response(IOUtils.toByteArray(in), connection::getHeaderField);
+			}
+		}
+		ResponseCache.Entry entry = cache.get(url);
+		if (entry != null && cache.isFresh(entry)) {
+			return new Response(entry.read(), entry::getHeader);
+		}
+		if (cache.isOffline()) {
+			throw new FileNotFoundException(MessageFormat.format("''{0}'' is not available in offline mode", url));
+		}
+		URLConnection connection = connect(url, entry != null ? c -> cache.addValidators(entry, c) : null);
+		if (entry != null && connection instanceof HttpURLConnection
+				&& ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+			cache.touch(url, entry);
+			return new Response(entry.read(), entry::getHeader);
+		}
+		try (InputStream in = connection.getInputStream()) {
+			byte[] body = IOUtils.toByteArray(in);
+			cache.put(url, body, connection);
+			return new Response(body, connection::getHeaderField);
+		}
+	}
+	
+	/**
+	 * Opens the given {@link URL} bypassing the {@link ResponseCache}, e.g., to
+	 * download large binary files that are cached elsewhere
+	 * 
+	 * @param url
+	 * @return
+	 * @throws IOException
+	 */
+	public static InputStream download(URL url) throws IOException {
+		return download(url, 0).getInputStream();
+	}
+	
+	/**
+	 * Like {@link #download(URL)}, but requests the contents starting at byte
+	 * <code>offset</code> using a <code>Range</code> header (if
+	 * <code>offset</code> is greater than 0). Callers must check whether the
+	 * server answered with a <code>206 Partial Content</code> response.
+	 * 
+	 * Downloads time out if the server does not send any data for 60 s.
+	 * 
+	 * @param url
+	 * @param offset
+	 * @return The connected {@link URLConnection}
+	 * @throws IOException
+	 */
+	public static URLConnection download(URL url, long offset) throws IOException {
+		return connect(url, connection -> {
+			connection.setConnectTimeout(DOWNLOAD_TIMEOUT);
+			connection.setReadTimeout(DOWNLOAD_TIMEOUT);
+			if (offset > 0) {
+				connection.setRequestProperty("Range", "bytes=" + offset + "-");
+			}
+		});
+	}
+	
+	/**
+	 * Connects to the given {@link URL} once the {@link RateLimiter} allows it,
+	 * retrying with back off while the host answers that it is overloaded. The
+	 * <code>setup</code> (if any) is applied to each connection before sending it.
+	 */
+	private static URLConnection connect(URL url, Consumer<URLConnection> setup) throws IOException {
+		RateLimiter limiter = DelayedStreamOpener.limiter;
+		for (int attempt = 1; ; attempt++) {
 			try {
-				Thread.sleep(delay - (now  - lastRequest));
+				limiter.acquire(url.getHost());
 			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			URLConnection connection = openConnection(url);
+			if (setup != null) {
+				setup.accept(connection);
+			}
+			if (!(connection instanceof HttpURLConnection)) {
+				return connection;
+			}
+			HttpURLConnection httpConnection = (HttpURLConnection) connection;
+			long start = System.nanoTime();
+			int code = httpConnection.getResponseCode();
+			if (code == HTTP_TOO_MANY_REQUESTS || code == HttpURLConnection.HTTP_UNAVAILABLE) {
+				limiter.backoff(url.getHost(), getRetryAfter(httpConnection));
+				if (attempt < MAX_ATTEMPTS) {
+					httpConnection.disconnect();
+					continue;
+				}
+			} else {
+				limiter.record(url.getHost(), System.nanoTime() - start);
 			}
+			return connection;
 		}
-		lastRequest = System.currentTimeMillis();
+	}
+	
+	private static URLConnection openConnection(URL url) throws IOException {
 		URLConnection connection = url.openConnection();
 		if (connection instanceof HttpsURLConnection) {
 			HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
@@ -38,11 +180,62 @@ public final class DelayedStreamOpener {
 				}
 			});
 		}
-		return connection.getInputStream();
+		return connection;
+	}
+	
+	/**
+	 * Returns the time (in ms) requested in the <code>Retry-After</code> header,
+	 * or -1 if there is no such header
+	 */
+	private static long getRetryAfter(HttpURLConnection connection) {
+		String retryAfter = connection.getHeaderField("Retry-After");
+		if (retryAfter == null) {
+			return -1;
+		}
+		try {
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+		} catch (NumberFormatException e) {
+			try {
+				return Math.max(0, ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+						- System.currentTimeMillis());
+			} catch (DateTimeParseException e1) {
+				return -1;
+			}
+		}
 	}
 	
+	/**
+	 * Waits (at least) <code>delay</code> ms between requests to the same host
+	 * 
+	 * @param delay
+	 */
 	public static void setDelay(int delay) {
-		DelayedStreamOpener.delay = delay;
+		setRate(delay > 0 ? 1000d / delay : 0, 1);
+	}
+	
+	/**
+	 * Limits the requests to <code>rate</code> requests per second per host,
+	 * allowing bursts of up to <code>burst</code> requests
+	 * 
+	 * @param rate
+	 * @param burst
+	 */
+	public static void setRate(double rate, int burst) {
+		DelayedStreamOpener.limiter = new RateLimiter(rate, burst);
+	}
+	
+	public static RateLimiter getRateLimiter() {
+		return limiter;
+	}
+	
+	/**
+	 * Serves the responses from the given {@link ResponseCache}, use
+	 * <code>null</code> to disable caching
+	 *
+	 * @param cache
+	 */
+	public static void setCache(ResponseCache cache) {
+		DelayedStreamOpener.cache = cache;
 	}
 	
 }
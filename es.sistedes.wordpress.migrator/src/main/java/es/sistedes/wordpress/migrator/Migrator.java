@@ -17,19 +17,32 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -41,35 +54,58 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPatch;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.cookie.BasicCookieStore;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.client5.http.entity.mime.ContentBody;
+import org.apache.hc.client5.http.entity.mime.FileBody;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.net.URIBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.simplenamematcher.SimpleNameMatcher;
 
+import es.sistedes.wordpress.migrator.RelationshipJournal.Relationship;
 import es.sistedes.wordpress.migrator.dsmodel.BulletinPublication;
 import es.sistedes.wordpress.migrator.dsmodel.Bundle;
 import es.sistedes.wordpress.migrator.dsmodel.Collection;
 import es.sistedes.wordpress.migrator.dsmodel.Community;
 import es.sistedes.wordpress.migrator.dsmodel.Item;
 import es.sistedes.wordpress.migrator.dsmodel.Item.Type;
+import es.sistedes.wordpress.migrator.dsmodel.PdfPrefetcher;
+import es.sistedes.wordpress.migrator.dsmodel.PdfStore;
 import es.sistedes.wordpress.migrator.dsmodel.Person;
 import es.sistedes.wordpress.migrator.dsmodel.PreliminarsPublication;
 import es.sistedes.wordpress.migrator.dsmodel.Publication;
@@ -83,6 +119,7 @@ import es.sistedes.wordpress.migrator.wpmodel.Conference;
 import es.sistedes.wordpress.migrator.wpmodel.Document.License;
 import es.sistedes.wordpress.migrator.wpmodel.DocumentsLibrary;
 import es.sistedes.wordpress.migrator.wpmodel.Edition;
+import es.sistedes.wordpress.migrator.wpmodel.EditionIndex;
 import es.sistedes.wordpress.migrator.wpmodel.Seminar;
 import es.sistedes.wordpress.migrator.wpmodel.Track;
 import net.handle.hdllib.AbstractMessage;
@@ -113,6 +150,19 @@ public class Migrator {
 	private static final Double NAME_SIMILARITY_THRESHOLD_WHEN_MAIL_MATCHES = 50.0d;
 	private static final Double NAME_SIMILARITY_THRESHOLD_WHEN_NAME_MATCHES = 90.0d;
 	
+	private static final int DEFAULT_MAX_CONNECTIONS = 10;
+	private static final int DEFAULT_TIMEOUT = 300;
+	private static final int DEFAULT_THREADS = 1;
+	private static final int PRELOAD_PAGE_SIZE = 100;
+	private static final int DEFAULT_PERSON_FLUSH_INTERVAL = 300;
+	private static final String RELATIONSHIPS_JOURNAL_FILE = "relationships.tsv";
+	private static final int RELATIONSHIP_ATTEMPTS = 3;
+	private static final long RELATIONSHIP_RETRY_DELAY = 1000;
+	
+	// DSpace JWT tokens expire after 30 minutes
+	private static final long TOKEN_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(20);
+	private static final long TOKEN_REFRESH_DEADLINE = TimeUnit.MINUTES.toMillis(25);
+	
 	final static Logger logger = LoggerFactory.getLogger(Migrator.class);
 
 	private final static String DSPACE_XSRF_TOKEN = "DSPACE-XSRF-TOKEN";
@@ -133,17 +183,29 @@ public class Migrator {
 	private static final String ITEMS_ENDPOINT = API_ENDPOINT + "/core/items";
 	private static final String ITEM_BUNDLES_ENDPOINT = API_ENDPOINT + "/core/items/%s/bundles";
 	private static final String BUNDLES_BITSTREAMS_ENDPOINT = API_ENDPOINT + "/core/bundles/%s/bitstreams";
+	private static final String BITSTREAMS_ENDPOINT = API_ENDPOINT + "/core/bitstreams";
 	private static final String RESOURCE_POLICIES_ENDPOINT = API_ENDPOINT + "/authz/resourcepolicies";
 	private static final String RESOURCE_POLICIES_SEARCH_ENDPOINT = RESOURCE_POLICIES_ENDPOINT + "/search/resource?uuid=%s";
-	private static final String AUTHOR_PAPER_RELATIONSHIP_ENDPOINT = API_ENDPOINT + "/core/relationships?relationshipType=1";
-	private static final String AUTHOR_ABSTRACT_RELATIONSHIP_ENDPOINT = API_ENDPOINT + "/core/relationships?relationshipType=2";
-	private static final String AUTHOR_SEMINAR_RELATIONSHIP_ENDPOINT = API_ENDPOINT + "/core/relationships?relationshipType=3";
+	private static final String RELATIONSHIPS_ENDPOINT = API_ENDPOINT + "/core/relationships";
+	private static final int AUTHOR_PAPER_RELATIONSHIP_TYPE = 1;
+	private static final int AUTHOR_ABSTRACT_RELATIONSHIP_TYPE = 2;
+	private static final int AUTHOR_SEMINAR_RELATIONSHIP_TYPE = 3;
 	private static final String DISCOVER_SEARCH_OBJECTS_ENDPOINT = API_ENDPOINT + "/discover/search/objects";
 
 	private class Identifiable {
 		String id;
 	}
 	
+	private class Bitstream extends Identifiable {
+		private class CheckSum {
+			private String checkSumAlgorithm;
+			private String value;
+		}
+
+		private long sizeBytes;
+		private CheckSum checkSum;
+	}
+	
 	private class SitesResponse {
 		private class Embedded {
 			private List<Site> sites;
@@ -190,6 +252,13 @@ public class Migrator {
 		DRY_RUN,
 		INTERACTIVE,
 		MIGRATE_DOCUMENTS,
+		MAX_CONNECTIONS,
+		TIMEOUT,
+		THREADS,
+		STREAM_UPLOADS,
+		PRELOAD_AUTHORS,
+		PERSON_FLUSH_INTERVAL,
+		RELATIONSHIPS_ONLY,
 		// @formatter:on
 	}
 
@@ -201,44 +270,115 @@ public class Migrator {
 	private DSpaceAuth dspaceAuth;
 	private PublicKeyAuthenticationInfo auth;
 	private Map<Options, Object> options;
-	private HttpClientBuilder httpClientBuilder;
-
+	private CloseableHttpClient httpClient;
+	private ConnectionStatistics connectionStatistics;
+	private ExecutorService publicationsExecutor;
+	// Finding and creating persons is not atomic in DSpace, so persons are
+	// created one at a time (each author is resolved once, see PersonCache)
+	private final Object personsLock = new Object();
+	// Updates of the same person may come from different authors
+	private final Object personUpdatesLock = new Object();
+	// Local index of the persons in DSpace (only if Options.PRELOAD_AUTHORS is set)
+	private PersonIndex personIndex;
+	// Persons already resolved during the migration
+	private PersonCache personCache;
+	// Pending updates of the persons
+	private PersonPatches personPatches;
+	// Relationships between publications and authors to be created
+	private RelationshipJournal relationships;
 
 	private Site site;
 	
+	/**
+	 * Manages the DSpace authentication tokens. Tokens are kept as an immutable
+	 * snapshot so that concurrent requests always send a consistent XSRF/JWT pair,
+	 * and the JWT token is refreshed in the background before it expires. If the
+	 * background refresh is late (or has failed), the first request crossing the
+	 * refresh window refreshes it synchronously; concurrent refresh attempts are
+	 * collapsed into a single request.
+	 * 
+	 * @author agomez
+	 *
+	 */
 	private class DSpaceAuth {
 		private URL url;
-		private String xsrfToken;
-		private String jwtToken;
-		private Date lastIssed;
+		private final AtomicReference<Tokens> tokens = new AtomicReference<>();
+		private final ReentrantLock refreshLock = new ReentrantLock();
+		private ScheduledExecutorService scheduler;
+		
+		private class Tokens {
+			private final String xsrfToken;
+			private final String jwtToken;
+			private final long issued;
+			
+			private Tokens(String xsrfToken, String jwtToken, long issued) {
+				this.xsrfToken = xsrfToken;
+				this.jwtToken = jwtToken;
+				this.issued = issued;
+			}
+			
+			private Tokens withXsrfToken(String xsrfToken) {
+				return new Tokens(xsrfToken, jwtToken, issued);
+			}
+		}
 
 		public DSpaceAuth(URL url) {
 			this.url = url;
 		}
 		
-		public String getJwtToken() {
-			return jwtToken;
+		/**
+		 * Sets the XSRF and JWT headers in the given request, both taken from the
+		 * same snapshot
+		 * 
+		 * @param request
+		 */
+		public void authorize(HttpRequest request) {
+			Tokens current = getTokens();
+			request.setHeader(X_XSRF_TOKEN, current.xsrfToken);
+			request.setHeader(AUTHORIZATION_TOKEN, current.jwtToken);
 		}
 		
-		public String getXsrfToken() {
-			if (Calendar.getInstance().getTime().toInstant().getEpochSecond() - lastIssed.toInstant().getEpochSecond() > 25 * 60) {
-				// Refresh JWT token every 25 minutes
-				logger.info("[!AUTH] Refreshing JWT token...");
-				refreshJwtToken();
+		/**
+		 * Updates the XSRF token if the given response carries a new one. The
+		 * token is only accepted if the snapshot the request was authorized with
+		 * is still the current one, so that a late response cannot overwrite the
+		 * tokens of a refresh that happened in the meantime
+		 * 
+		 * @param request
+		 * @param response
+		 */
+		public void update(HttpRequest request, HttpResponse response) {
+			Header header = response.getFirstHeader(DSPACE_XSRF_TOKEN);
+			if (header == null) {
+				return;
 			}
-			return xsrfToken;
+			Header xsrfToken = request.getFirstHeader(X_XSRF_TOKEN);
+			Header jwtToken = request.getFirstHeader(AUTHORIZATION_TOKEN);
+			Tokens current;
+			do {
+				current = tokens.get();
+				if (xsrfToken == null || jwtToken == null || !current.xsrfToken.equals(xsrfToken.getValue())
+						|| !current.jwtToken.equals(jwtToken.getValue())) {
+					return;
+				}
+			} while (!tokens.compareAndSet(current, current.withXsrfToken(header.getValue())));
 		}
-
-		public void updateXsrfToken(String xsrfToken) {
-			this.xsrfToken = xsrfToken; 
+		
+		private Tokens getTokens() {
+			Tokens current = tokens.get();
+			if (System.currentTimeMillis() - current.issued > TOKEN_REFRESH_DEADLINE) {
+				logger.warn("[!AUTH] JWT token not refreshed in time, refreshing it now...");
+				refreshJwtToken(current);
+				current = tokens.get();
+			}
+			return current;
 		}
 		
 		public void login() {
-			this.lastIssed = Calendar.getInstance().getTime();
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-
+			try {
+				String xsrfToken;
 				HttpGet get = new HttpGet(url + API_ENDPOINT);
-				try (CloseableHttpResponse response = client.execute(get)) {
+				try (CloseableHttpResponse response = httpClient.execute(get)) {
 					EntityUtils.consume(response.getEntity());
 					xsrfToken = response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue();
 				}
@@ -251,38 +391,82 @@ public class Migrator {
 				post.setEntity(new UrlEncodedFormEntity(data));
 				post.setHeader(X_XSRF_TOKEN, xsrfToken);
 
-				try (CloseableHttpResponse response = client.execute(post)) {
+				try (CloseableHttpResponse response = httpClient.execute(post)) {
 					if (response.getCode() != HttpStatus.SC_OK) {
 						throw new MigrationException();
 					}
 					EntityUtils.consume(response.getEntity());
-					xsrfToken = response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue();
-					jwtToken = response.getFirstHeader(AUTHORIZATION_TOKEN).getValue();
+					tokens.set(new Tokens(
+							response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue(),
+							response.getFirstHeader(AUTHORIZATION_TOKEN).getValue(),
+							System.currentTimeMillis()));
 				}
 			} catch (Exception e) {
-				throw new RuntimeException(MessageFormat.format("Unable to log in ''{0}''", url));
+				throw new RuntimeException(MessageFormat.format("Unable to log in ''{0}''", url), e);
 			}
+			scheduleRefresh();
 		}
 		
-		private void refreshJwtToken() {
-			
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-				
+		private synchronized void scheduleRefresh() {
+			if (scheduler == null) {
+				scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "dspace-auth-refresh");
+					thread.setDaemon(true);
+					return thread;
+				});
+				scheduler.scheduleWithFixedDelay(() -> {
+					try {
+						logger.info("[!AUTH] Refreshing JWT token...");
+						refreshJwtToken(tokens.get());
+					} catch (RuntimeException e) {
+						logger.warn("[!AUTH] " + e.getLocalizedMessage() + ", will retry on next request", e);
+					}
+				}, TOKEN_REFRESH_INTERVAL, TOKEN_REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		/**
+		 * Stops the background refresh
+		 */
+		public synchronized void close() {
+			if (scheduler != null) {
+				scheduler.shutdownNow();
+				scheduler = null;
+			}
+		}
+		
+		/**
+		 * Refreshes the JWT token, unless it has been already refreshed since the
+		 * given snapshot was taken
+		 * 
+		 * @param seen
+		 */
+		private void refreshJwtToken(Tokens seen) {
+			refreshLock.lock();
+			try {
+				if (tokens.get().issued != seen.issued) {
+					// Someone else refreshed it while we were waiting
+					return;
+				}
+				Tokens current = tokens.get();
 				HttpPost post = new HttpPost(output + AUTHN_LOGIN_ENDPOINT);
-				post.setHeader(AUTHORIZATION_TOKEN, jwtToken);
-				post.setHeader(X_XSRF_TOKEN, xsrfToken);
+				post.setHeader(AUTHORIZATION_TOKEN, current.jwtToken);
+				post.setHeader(X_XSRF_TOKEN, current.xsrfToken);
 				
-				try (CloseableHttpResponse response = client.execute(post)) {
+				try (CloseableHttpResponse response = httpClient.execute(post)) {
 					if (response.getCode() != HttpStatus.SC_OK) {
 						throw new MigrationException();
 					}
 					EntityUtils.consume(response.getEntity());
-					jwtToken = response.getFirstHeader(AUTHORIZATION_TOKEN).getValue();
-					xsrfToken = response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue();
-					lastIssed = Calendar.getInstance().getTime();
+					tokens.set(new Tokens(
+							response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue(),
+							response.getFirstHeader(AUTHORIZATION_TOKEN).getValue(),
+							System.currentTimeMillis()));
 				}
 			} catch (Exception e) {
-				throw new RuntimeException(MessageFormat.format("Unable to refresh JWT token on ''{0}''", url));
+				throw new RuntimeException(MessageFormat.format("Unable to refresh JWT token on ''{0}''", url), e);
+			} finally {
+				refreshLock.unlock();
 			}
 		}
 	}
@@ -296,9 +480,105 @@ public class Migrator {
 		this.prefix = prefix;
 		this.auth = auth;
 		this.options = new HashMap<Options, Object>();
-		this.httpClientBuilder = HttpClients.custom().setDefaultCookieStore(new BasicCookieStore());
 		this.dspaceAuth = new DSpaceAuth(output);
-
+	}
+	
+	/**
+	 * Keeps track of how many requests are sent to DSpace and how many
+	 * connections have been needed to serve them. The connection setup time
+	 * includes the TCP connect, and also the TLS handshake for https
+	 * 
+	 * @author agomez
+	 *
+	 */
+	private static class ConnectionStatistics {
+		private final AtomicLong requests = new AtomicLong();
+		private final AtomicLong connections = new AtomicLong();
+		private final AtomicLong handshakes = new AtomicLong();
+		private final AtomicLong handshakeNanos = new AtomicLong();
+		
+		private void handshake(long start) {
+			handshakes.incrementAndGet();
+			handshakeNanos.addAndGet(System.nanoTime() - start);
+		}
+		
+		@Override
+		public String toString() {
+			long reused = Math.max(0, requests.get() - connections.get());
+			double avgHandshakeMillis = handshakes.get() > 0 ? handshakeNanos.get() / 1e6d / handshakes.get() : 0d;
+			return MessageFormat.format(
+					"{0} requests served using {1} connections ({2} reused, {3,number,#.#}%). "
+					+ "Average connection setup: {4,number,#.#} ms. Estimated time saved: {5,number,#.#} s",
+					requests.get(), connections.get(), reused, requests.get() > 0 ? 100d * reused / requests.get() : 0d,
+					avgHandshakeMillis, reused * avgHandshakeMillis / 1000d);
+		}
+	}
+	
+	/**
+	 * Creates the {@link CloseableHttpClient} that is shared by all the requests
+	 * sent to DSpace during a migration. Connections are pooled and kept alive, so
+	 * that TCP and TLS handshakes are only paid once per pooled connection.
+	 * Both socket factories are timed, so that the statistics are also
+	 * meaningful when DSpace is served over plain http.
+	 * 
+	 * @return
+	 */
+	private CloseableHttpClient createHttpClient() {
+		final ConnectionStatistics statistics = connectionStatistics;
+		PlainConnectionSocketFactory plainSocketFactory = new PlainConnectionSocketFactory() {
+			@Override
+			public Socket connectSocket(TimeValue connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+					InetSocketAddress localAddress, HttpContext context) throws IOException {
+				long start = System.nanoTime();
+				try {
+					return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+				} finally {
+					statistics.handshake(start);
+				}
+			}
+		};
+		SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.createSystemDefault()) {
+			@Override
+			public Socket connectSocket(TimeValue connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+					InetSocketAddress localAddress, HttpContext context) throws IOException {
+				long start = System.nanoTime();
+				try {
+					return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+				} finally {
+					statistics.handshake(start);
+				}
+			}
+		};
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory>create()
+						.register("http", plainSocketFactory)
+						.register("https", sslSocketFactory)
+						.build(),
+				PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND,
+				socket -> {
+					statistics.connections.incrementAndGet();
+					return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+				});
+		connectionManager.setDefaultMaxPerRoute(getMaxConnections());
+		connectionManager.setMaxTotal(getMaxConnections());
+		connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+				.setSoKeepAlive(true)
+				.setTcpNoDelay(true)
+				.setSoTimeout(getTimeout(), TimeUnit.SECONDS)
+				.build());
+		connectionManager.setValidateAfterInactivity(TimeValue.ofSeconds(10));
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultCookieStore(new BasicCookieStore())
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectTimeout(getTimeout(), TimeUnit.SECONDS)
+						.setResponseTimeout(getTimeout(), TimeUnit.SECONDS)
+						.setConnectionRequestTimeout(Timeout.ofSeconds(getTimeout()))
+						.build())
+				.addRequestInterceptorFirst((request, entity, context) -> statistics.requests.incrementAndGet())
+				.evictIdleConnections(TimeValue.ofMinutes(1))
+				.build();
 	}
 
 	/**
@@ -339,9 +619,31 @@ public class Migrator {
 	 *                            out the exact cause
 	 */
 	public synchronized void migrate() throws MigrationException {
+		connectionStatistics = new ConnectionStatistics();
+		personCache = new PersonCache();
+		personPatches = new PersonPatches(getPersonFlushInterval() * 1000L);
+		relationships = new RelationshipJournal(new File(RELATIONSHIPS_JOURNAL_FILE));
+		httpClient = createHttpClient();
+		if (getThreads() > 1) {
+			if (isInteractive()) {
+				logger.warn("[!THREADS] Interactive mode is enabled, publications will be migrated sequentially");
+			} else {
+				final AtomicInteger count = new AtomicInteger();
+				publicationsExecutor = Executors.newFixedThreadPool(getThreads(), runnable -> {
+					Thread thread = new Thread(runnable, "publications-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+		}
 		try {
 			dspaceAuth.login();
 
+			if (isRelationshipsOnly()) {
+				replayRelationships();
+				return;
+			}
+
 			BDSistedes bdSistedes = new BDSistedes(input);
 			
 			// We need the Sistedes community to have a Global Authors Collection
@@ -361,14 +663,50 @@ public class Migrator {
 							null,
 							Type.AUTHOR));
 			}
+			
+			if (isPreloadAuthors() && !isDryRun()) {
+				personIndex = preloadPersons(authorsCollection);
+			}
 
 			if (isMigrateDocumentsEnabled()) {
 				migrateSeminars(bdSistedes, authorsCollection);
 				migrateBulletins(bdSistedes);
 			}
 			migrateConferences(bdSistedes, authorsCollection);
+			flushPersonUpdates();
+			flushRelationships();
 		} catch (Exception e) {
 			throw new MigrationException(e);
+		} finally {
+			if (!personPatches.isEmpty()) {
+				try {
+					flushPersonUpdates();
+				} catch (MigrationException e) {
+					logger.warn("[!PERSON] Unable to send the pending updates of the persons: " + e.getLocalizedMessage());
+				}
+			}
+			dspaceAuth.close();
+			personIndex = null;
+			try {
+				relationships.close();
+			} catch (IOException e) {
+				logger.warn("[!RELATIONSHIPS] Unable to close the relationships journal: " + e.getLocalizedMessage());
+			}
+			if (publicationsExecutor != null) {
+				publicationsExecutor.shutdownNow();
+				publicationsExecutor = null;
+			}
+			PdfPrefetcher.shutdown();
+			PdfStore.close();
+			try {
+				httpClient.close();
+			} catch (IOException e) {
+				logger.warn("[!HTTP] Unable to close the HTTP client: " + e.getLocalizedMessage());
+			}
+			logger.info("[HTTP] " + connectionStatistics);
+			logger.info("[PERSON] " + personCache);
+			logger.info("[PERSON] " + personPatches);
+			logger.info("[HTTP] Wordpress: " + DelayedStreamOpener.getRateLimiter());
 		}
 	}
 
@@ -382,43 +720,38 @@ public class Migrator {
 				for (Edition edition : conference.getEditions((e1, e2) -> StringUtils.compare(e1.getTitle(), e2.getTitle()))) {
 					if (edition.getYear() >= getStartYear() && edition.getYear() <= getEndYear()) {
 						logger.info("[>EDITION] Starting migration of '"  + edition.getTitle() + "'");
-						if (edition.getArticles().isEmpty()) {
+						EditionIndex index = edition.getIndex();
+						if (index.isEmpty()) {
 							logger.warn("[!EDITION] '" + edition.getTitle() + "' has no papers! Skipping!");
 							continue;
 						}
 						Community childCommunity = createEditionSubCommunity(community, edition);
 						Collection preliminariesCollection = null;
-						if (!edition.getTracks().isEmpty() && edition.getTracks().stream()
-								.anyMatch(t -> {try { return t.getArticles().isEmpty(); } catch (IOException e) {}; return false;})) {
+						if (index.hasEmptyTracks()) {
 							preliminariesCollection = createPreliminariesCollection(childCommunity);
 						}
 						if (edition.getTracks().isEmpty()) {
 							logger.warn("[!EDITION] '" + edition.getTitle() + "' has no tracks! Creating a dummy one...");
-							logger.info("[>TRACK] Starting migration of " + edition.getTitle() + " (" + edition.getArticles().size() + " papers)");
+							logger.info("[>TRACK] Starting migration of " + edition.getTitle() + " (" + index.size() + " papers)");
 							Collection publicationsCollection = createCollection(childCommunity, edition);
-							for (Article article : edition.getArticles()) {
-								logger.debug("[-PAPER] Migrating '" + article.getTitle() + "'. "
-										+ article.getAuthors().stream().map(Author::toString).collect(Collectors.joining("; ")));
-								createPublication(publicationsCollection, authorsCollection, article);
-							}
-							logger.info("[<TRACK] Migration of '" + edition.getTitle() + "' finished");
+							long start = System.nanoTime();
+							migratePublications(publicationsCollection, authorsCollection, index.getArticles(), null);
+							logger.info("[<TRACK] Migration of '" + edition.getTitle() + "' finished " + throughput(index.size(), start));
 						} else {
 							for (Track track : edition.getTracks()) {
-								logger.info("[>TRACK] Starting migration of " + track.getTitle() + " (" + track.getArticles().size() + " papers)");
-								if (track.getArticles().isEmpty()) {
+								logger.info("[>TRACK] Starting migration of " + track.getTitle() + " (" + index.getArticleCount(track) + " papers)");
+								long start = System.nanoTime();
+								if (index.isEmpty(track)) {
 									createPublication(preliminariesCollection, track);
 								} else {
 									Collection publicationsCollection = createCollection(childCommunity, track, edition.getDate());
-									for (Article article : track.getArticles()) {
-										logger.debug("[-PAPER] Migrating '" + article.getTitle() + "'. "
-												+ article.getAuthors().stream().map(Author::toString).collect(Collectors.joining("; ")));
-										article.setProceedings(edition.getName());
-										createPublication(publicationsCollection, authorsCollection, article);
-									}
+									migratePublications(publicationsCollection, authorsCollection, index.getArticles(track), edition.getName());
 								}
-								logger.info("[<TRACK] Migration of '" + track.getTitle() + "' finished");
+								logger.info("[<TRACK] Migration of '" + track.getTitle() + "' finished " + throughput(index.getArticleCount(track), start));
 							}
 						}
+						flushPersonUpdates();
+						flushRelationships();
 						logger.info("[<EDITION] Migration of '"  + edition.getTitle() + "' finished");
 					} else {
 						logger.info("[!EDITION] Skipping '"  + edition.getTitle() + "'...");
@@ -429,6 +762,103 @@ public class Migrator {
 		}
 	}
 
+	/**
+	 * Migrates the given {@link Article}s into <code>publicationsCollection</code>.
+	 * If a publications executor is available (see {@link Options#THREADS}), the
+	 * articles are migrated concurrently. Otherwise, they are migrated one by one.
+	 * In both cases, the first error aborts the remaining migrations and is
+	 * rethrown.
+	 * 
+	 * @param publicationsCollection
+	 * @param authorsCollection
+	 * @param articles
+	 * @param proceedings            The proceedings name to set in the articles, or
+	 *                               <code>null</code> to leave them untouched
+	 * @throws Exception
+	 */
+	private void migratePublications(final Collection publicationsCollection, final Collection authorsCollection, final List<Article> articles,
+			final String proceedings) throws Exception {
+		if (!isStreamUploads()) {
+			PdfPrefetcher.prefetch(articles);
+		}
+		if (publicationsExecutor == null) {
+			for (Article article : articles) {
+				migratePublication(publicationsCollection, authorsCollection, article, proceedings);
+			}
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<>();
+		for (Article article : articles) {
+			futures.add(publicationsExecutor.submit(() -> {
+				migratePublication(publicationsCollection, authorsCollection, article, proceedings);
+				return null;
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+
+	private void migratePublication(final Collection publicationsCollection, final Collection authorsCollection, final Article article,
+			final String proceedings) throws Exception {
+		logger.debug("[-PAPER] Migrating '" + article.getTitle() + "'. "
+				+ article.getAuthors().stream().map(Author::toString).collect(Collectors.joining("; ")));
+		if (proceedings != null) {
+			article.setProceedings(proceedings);
+		}
+		try {
+			createPublication(publicationsCollection, authorsCollection, article);
+		} finally {
+			releasePdfFile(article.getHandle());
+		}
+	}
+
+	/**
+	 * Allows the PDF file of the given handle to be evicted from the
+	 * {@link PdfStore}, once its publication has been uploaded (or has failed)
+	 * 
+	 * @param handle
+	 */
+	private static void releasePdfFile(String handle) {
+		if (handle != null) {
+			PdfStore.release(PdfStore.getFile(handle));
+		}
+	}
+
+	private static String throughput(int items, long startNanos) {
+		double seconds = (System.nanoTime() - startNanos) / 1e9d;
+		return MessageFormat.format("({0} papers in {1,number,#.#} s, {2,number,#.##} items/s)", items, seconds,
+				seconds > 0 ? items / seconds : 0d);
+	}
+
+	/**
+	 * Creates the relationships of the journal that were not created in previous
+	 * migrations (limited to the selected conferences, if any)
+	 * 
+	 * @throws Exception
+	 */
+	private void replayRelationships() throws Exception {
+		final List<String> conferences = getConferences();
+		int count = relationships.load(label -> conferences.isEmpty() 
+				|| Arrays.stream(label.split("/")).anyMatch(conferences::contains));
+		logger.info(MessageFormat.format("[RELATIONSHIPS] Found {0} relationships to replay in ''{1}''", count, RELATIONSHIPS_JOURNAL_FILE));
+		if (!isDryRun()) {
+			flushRelationships();
+		}
+	}
+
 	private void migrateBulletins(BDSistedes bdSistedes) throws Exception {
 		Community sistedesCommunity = findSistedesCommunity(bdSistedes);
 		if (sistedesCommunity == null) {
@@ -442,7 +872,11 @@ public class Migrator {
 		Collection bulletinsCollection = createBulletinsCollection(sistedesCommunity);
 		for (Bulletin bulletin: documentsLibrary.getBulletins((b1, b2) -> b1.getDate().compareTo(b2.getDate()))) {
 			logger.debug("[-BULLETIN] Migrating '" + bulletin.getTitle() + "'.");
-			createPublication(bulletinsCollection, bulletin);
+			try {
+				createPublication(bulletinsCollection, bulletin);
+			} finally {
+				releasePdfFile(bulletin.getHandle());
+			}
 		}
 		logger.info("[<Bulletin] Migration of Sistedes Bulletins finished");
 	}
@@ -462,6 +896,8 @@ public class Migrator {
 			logger.debug("[-BULLETIN] Migrating '" + seminar.getTitle() + "'.");
 			createPublication(seminarsCollection, authorsCollection, seminar);
 		}
+		flushPersonUpdates();
+		flushRelationships();
 		logger.info("[<Seminar] Migration of Sistedes Seminars finished");
 	}
 	
@@ -487,30 +923,25 @@ public class Migrator {
 	}
 	
 	private Collection findAuthorsCollection(final Community community) throws Exception {
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
-			{
-				HttpGet get = new HttpGet(output + String.format(COMMUNITIES_COLLECTIONS_ENDPOINT, community.getUuid()));
-				get.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				get.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-				
-				try (CloseableHttpResponse response = client.execute(get)) {
-					if (response.getCode() != HttpStatus.SC_OK) {
-						throw new MigrationException(
-								MessageFormat.format("Unable to obtain Collections from ''{0}''. HTTP request returned code {1}: {2}",
-								output, response.getCode(), community.toJson()));
-					}
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
-					String string = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-					CollectionsResponse collectionsResponse = new Gson().fromJson(string, CollectionsResponse.class);
-					if (collectionsResponse._embedded != null) {
-						List<Collection> collections = collectionsResponse._embedded.collections;
-						String title = "Autores";
-						Optional<Collection> result = collections.stream().filter(c -> StringUtils.equals(c.getTitle(), title)).findFirst();
-						if (result.isPresent()) {
-							return result.get();
-						}
+		{
+			HttpGet get = new HttpGet(output + String.format(COMMUNITIES_COLLECTIONS_ENDPOINT, community.getUuid()));
+			dspaceAuth.authorize(get);
+			
+			try (CloseableHttpResponse response = httpClient.execute(get)) {
+				if (response.getCode() != HttpStatus.SC_OK) {
+					throw new MigrationException(
+							MessageFormat.format("Unable to obtain Collections from ''{0}''. HTTP request returned code {1}: {2}",
+							output, response.getCode(), community.toJson()));
+				}
+				dspaceAuth.update(get, response);
+				String string = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+				CollectionsResponse collectionsResponse = new Gson().fromJson(string, CollectionsResponse.class);
+				if (collectionsResponse._embedded != null) {
+					List<Collection> collections = collectionsResponse._embedded.collections;
+					String title = "Autores";
+					Optional<Collection> result = collections.stream().filter(c -> StringUtils.equals(c.getTitle(), title)).findFirst();
+					if (result.isPresent()) {
+						return result.get();
 					}
 				}
 			}
@@ -529,31 +960,26 @@ public class Migrator {
 	}
 
 	private Community findTopCommunity(final Community community) throws Exception {
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
-			// Check first if there's already a top level community...
-			{
-				HttpGet get = new HttpGet(output + TOP_COMMUNITIES_ENDPOINT);
-				get.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				get.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-				
-				try (CloseableHttpResponse response = client.execute(get)) {
-					if (response.getCode() != HttpStatus.SC_OK) {
-						throw new MigrationException(
-								MessageFormat.format("Unable to obtain Communities from ''{0}''. HTTP request returned code {1}: {2}",
-								output, response.getCode(), community.toJson()));
-					}
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
-					String string = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-					CommunitiesResponse communitiesResponse = new Gson().fromJson(string, CommunitiesResponse.class);
-					if (communitiesResponse._embedded != null) {
-						List<Community> communities = communitiesResponse._embedded.communities;
-						String title = community.getTitle();
-						Optional<Community> result = communities.stream().filter(c -> StringUtils.equals(c.getTitle(), title)).findFirst();
-						if (result.isPresent()) {
-							return result.get();
-						}
+		// Check first if there's already a top level community...
+		{
+			HttpGet get = new HttpGet(output + TOP_COMMUNITIES_ENDPOINT);
+			dspaceAuth.authorize(get);
+			
+			try (CloseableHttpResponse response = httpClient.execute(get)) {
+				if (response.getCode() != HttpStatus.SC_OK) {
+					throw new MigrationException(
+							MessageFormat.format("Unable to obtain Communities from ''{0}''. HTTP request returned code {1}: {2}",
+							output, response.getCode(), community.toJson()));
+				}
+				dspaceAuth.update(get, response);
+				String string = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+				CommunitiesResponse communitiesResponse = new Gson().fromJson(string, CommunitiesResponse.class);
+				if (communitiesResponse._embedded != null) {
+					List<Community> communities = communitiesResponse._embedded.communities;
+					String title = community.getTitle();
+					Optional<Community> result = communities.stream().filter(c -> StringUtils.equals(c.getTitle(), title)).findFirst();
+					if (result.isPresent()) {
+						return result.get();
 					}
 				}
 			}
@@ -571,26 +997,23 @@ public class Migrator {
 	
 	private Community createCommunity(final Community parent, final Community community) throws MigrationException {
 		Community result = null;
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
+		try {
 			URIBuilder builder = new URIBuilder(output + COMMUNITIES_ENDPOINT);
 			if (parent != null) {
 				builder.setParameter("parent", parent.getUuid());
 			}
 			HttpPost post = new HttpPost(builder.build());
 			post.setEntity(community.toHttpEntity());
-			post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-			post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+			dspaceAuth.authorize(post);
 			
-			try (CloseableHttpResponse response = client.execute(post)) {
+			try (CloseableHttpResponse response = httpClient.execute(post)) {
 				if (response.getCode() != HttpStatus.SC_CREATED) {
 					throw new MigrationException(
 							MessageFormat.format("Unable to create Community from ''{0}''. HTTP request returned code {1}.",
 							community.getTitle(), response.getCode()));
 				}
 				result = Community.fromHttpEntity(response.getEntity());
-				if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-					dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-				}
+				dspaceAuth.update(post, response);
 			}
 			setHandle(community.getSistedesIdentifier(), result.getHandleUrl(), prefix, auth);
 		} catch (Exception e) {
@@ -683,25 +1106,22 @@ public class Migrator {
 	private Collection createCollection(final Community parent, final Collection collection) throws MigrationException {
 		Collection result = collection;
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
+			try {
 				URIBuilder builder = new URIBuilder(output + COLLECTIONS_ENDPOINT);
 		        builder.setParameter("parent", parent.getUuid());
 				
 				HttpPost post = new HttpPost(builder.build());
 				post.setEntity(collection.toHttpEntity());
-				post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+				dspaceAuth.authorize(post);
 	
-				try (CloseableHttpResponse response = client.execute(post)) {
+				try (CloseableHttpResponse response = httpClient.execute(post)) {
 					if (response.getCode() != HttpStatus.SC_CREATED) {
 						throw new MigrationException(
 								MessageFormat.format("Unable to create Collection for ''{0}''. HTTP request returned code {1}.",
 								collection.getTitle(), response.getCode()));
 					}
 					result = Collection.fromHttpEntity(response.getEntity());
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
+					dspaceAuth.update(post, response);
 				}
 				setHandle(collection.getSistedesIdentifier(), result.getHandleUrl(), prefix, auth);
 			} catch (Exception e) {
@@ -719,25 +1139,20 @@ public class Migrator {
 		obj.remove("inArchive");
 		obj.remove("discoverable");
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-				URIBuilder builder = new URIBuilder(output + String.format(COLLECTIONS_ITEMT_TEMPLATE_ENDPOINT, collection.getUuid()));
-				
-				HttpPost post = new HttpPost(builder.build());
-				post.setEntity(new StringEntity(obj.toString(), ContentType.APPLICATION_JSON));
-				post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-	
-				try (CloseableHttpResponse response = client.execute(post)) {
-					if (response.getCode() != HttpStatus.SC_CREATED) {
-						throw new MigrationException(
-								MessageFormat.format("Unable to create Item template Collection for ''{0}''. HTTP request returned code {1}.",
-								collection.getTitle(), response.getCode()));
-					}
-					result = Collection.fromHttpEntity(response.getEntity());
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
+			URIBuilder builder = new URIBuilder(output + String.format(COLLECTIONS_ITEMT_TEMPLATE_ENDPOINT, collection.getUuid()));
+			
+			HttpPost post = new HttpPost(builder.build());
+			post.setEntity(new StringEntity(obj.toString(), ContentType.APPLICATION_JSON));
+			dspaceAuth.authorize(post);
+
+			try (CloseableHttpResponse response = httpClient.execute(post)) {
+				if (response.getCode() != HttpStatus.SC_CREATED) {
+					throw new MigrationException(
+							MessageFormat.format("Unable to create Item template Collection for ''{0}''. HTTP request returned code {1}.",
+							collection.getTitle(), response.getCode()));
 				}
+				result = Collection.fromHttpEntity(response.getEntity());
+				dspaceAuth.update(post, response);
 			}
 		}
 		return result;
@@ -747,7 +1162,7 @@ public class Migrator {
 		final PreliminarsPublication publication = PreliminarsPublication.from(parent, track);
 		Publication result = null;
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
+			try {
 				// First, create the publication....
 				{
 					result = createPublication(parent, publication);
@@ -765,16 +1180,18 @@ public class Migrator {
 				}
 			} catch (Exception e) {
 				throw new MigrationException(e);
+			} finally {
+				releasePdfFile(publication.getSistedesIdentifier());
 			}
 		}
 		return result;
 	}
 	
 	private Publication createPublication(final Collection parent, final Collection authorsCollection, Article article) throws Exception {
-		final Publication publication = Publication.from(parent, article);
+		final Publication publication = Publication.from(parent, article, !isStreamUploads());
 		Publication result = null;
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
+			try {
 				// First, create the publication....
 				{
 					result = createPublication(parent, publication);
@@ -785,10 +1202,15 @@ public class Migrator {
 				}
 				// Third, create a bundle for the files...
 				File file = publication.getFile();
-				if (!file.exists()) {
+				Identifiable uploadedFile = null;
+				if (file.exists()) {
+					uploadedFile = attachBinaryFiles(ORIGINAL_BUNDLE, result, new File[] { file }).get(0);
+				} else if (isStreamUploads() && article.getDocumentUrl() != null) {
+					uploadedFile = attachStreamedFile(ORIGINAL_BUNDLE, result, new URL(article.getDocumentUrl()), file);
+				}
+				if (uploadedFile == null) {
 					logger.info("Article '" + article.getLink() + "' does not have a file! Skipping file upload...");
 				} else {
-					Identifiable uploadedFile = attachBinaryFiles(ORIGINAL_BUNDLE, result, new File[] { file }).get(0);
 	
 					// And if the article is restricted, remove the resource policy
 					// (which at this point, should be a single one: allow anonymous read access)
@@ -797,10 +1219,9 @@ public class Migrator {
 						Identifiable policy = null;
 						{
 							HttpGet get = new HttpGet(output + String.format(RESOURCE_POLICIES_SEARCH_ENDPOINT, uploadedFile.id));
-							get.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-							get.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+							dspaceAuth.authorize(get);
 
-							try (CloseableHttpResponse response = client.execute(get)) {
+							try (CloseableHttpResponse response = httpClient.execute(get)) {
 								if (response.getCode() != HttpStatus.SC_OK) {
 									throw new MigrationException(MessageFormat.format(
 											"Unable to get policies file for ''{0}''. HTTP request returned code {1}.", uploadedFile.id, response.getCode()));
@@ -808,25 +1229,20 @@ public class Migrator {
 								String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
 								policy = new Gson().fromJson(json, ResourcePoliciesResponse.class)._embedded.resourcepolicies.get(0);
 
-								if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-									dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-								}
+								dspaceAuth.update(get, response);
 							}
 						}
 						if (policy != null) {
 							HttpDelete delete = new HttpDelete(output + RESOURCE_POLICIES_ENDPOINT + "/" + policy.id);
-							delete.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-							delete.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+							dspaceAuth.authorize(delete);
 
-							try (CloseableHttpResponse response = client.execute(delete)) {
+							try (CloseableHttpResponse response = httpClient.execute(delete)) {
 								if (response.getCode() != HttpStatus.SC_NO_CONTENT) {
 									throw new MigrationException(MessageFormat.format("Unable to delete policy ''{0}''. HTTP request returned code {1}.",
 											policy.id, response.getCode()));
 								}
 								EntityUtils.consume(response.getEntity());
-								if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-									dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-								}
+								dspaceAuth.update(delete, response);
 							}
 						}
 					}
@@ -840,93 +1256,235 @@ public class Migrator {
 
 	private void createAuthorsForPublication(final Collection authorsCollection, final List<Author> authors, Publication result) throws Exception {
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-				// First, create the authors...
-				List<Person> personsInDSpace = new ArrayList<>();
-				{
-					for (Author author : authors) {
-						Person person = findPersonFromAuthor(author);
-						if (person == null) {
-							person = createPersonFromAuthor(authorsCollection, author);
-						} else {
-							updatePersonFromAuthor(person, author);
-						}
-						personsInDSpace.add(person);
-					}
-				}
-				// Second, link the authors with the publication
-				{
-					for (Person person : personsInDSpace) {
-						String endpoint = result.isAbstract() ? AUTHOR_ABSTRACT_RELATIONSHIP_ENDPOINT : AUTHOR_PAPER_RELATIONSHIP_ENDPOINT;
-						HttpPost post = new HttpPost(output + endpoint);
-						post.setEntity(
-								new StringEntity(MessageFormat.format("{0}{1}/{2} \n {0}{1}/{3}", 
-									output, ITEMS_ENDPOINT, result.getUuid(), person.getUuid()),
-								ContentType.create("text/uri-list")));
-						post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-						post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-						
-						try (CloseableHttpResponse response = client.execute(post)) {
-							if (response.getCode() != HttpStatus.SC_CREATED) {
-								throw new MigrationException(
-										MessageFormat.format("Unable to create Relationship between ''{0}'' and ''{1}''. HTTP request returned code {2}.",
-												person.getUuid(), result.getUuid(), response.getCode()));
-							}
-							EntityUtils.consume(response.getEntity());
-							if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-								dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-							}
-						}
-					}
+			// First, create the authors...
+			List<Person> personsInDSpace = new ArrayList<>();
+			{
+				for (Author author : authors) {
+					personsInDSpace.add(resolvePerson(authorsCollection, author));
 				}
 			}
+			// Second, queue the links between the authors and the publication
+			{
+				queueRelationships(result.isAbstract() ? AUTHOR_ABSTRACT_RELATIONSHIP_TYPE : AUTHOR_PAPER_RELATIONSHIP_TYPE, result, personsInDSpace);
+			}
 		}
 	}
 	
 	private void createAuthorsForSeminarPublication(final Collection authorsCollection, final List<Author> authors, Publication result) throws Exception {
 		if (!isDryRun()) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-				// First, create the authors...
-				List<Person> personsInDSpace = new ArrayList<>();
-				{
-					for (Author author : authors) {
-						Person person = findPersonFromAuthor(author);
-						if (person == null) {
-							person = createPersonFromAuthor(authorsCollection, author);
-						} else {
-							updatePersonFromAuthor(person, author);
-						}
-						personsInDSpace.add(person);
+			// First, create the authors...
+			List<Person> personsInDSpace = new ArrayList<>();
+			{
+				for (Author author : authors) {
+					personsInDSpace.add(resolvePerson(authorsCollection, author));
+				}
+			}
+			// Second, queue the links between the authors and the publication
+			{
+				queueRelationships(AUTHOR_SEMINAR_RELATIONSHIP_TYPE, result, personsInDSpace);
+			}
+		}
+	}
+	
+	private void queueRelationships(final int type, final Publication publication, final List<Person> persons) throws IOException {
+		String label = StringUtils.defaultString(publication.getSistedesIdentifier(), publication.getUuid());
+		for (int i = 0; i < persons.size(); i++) {
+			relationships.add(new Relationship(type, publication.getUuid(), persons.get(i).getUuid(), i + 1, label));
+		}
+	}
+	
+	/**
+	 * Creates the queued relationships (see {@link RelationshipJournal}) in
+	 * DSpace. Relationships of different publications are created concurrently,
+	 * but those of the same publication are created one by one, so that the order
+	 * of the authors is preserved. Replayed publications (see
+	 * {@link RelationshipJournal#isReplayed(String)}) have their relationships
+	 * deleted first, so that all of them are created again in order. Failures
+	 * are logged, and the remaining relationships of the publication are left
+	 * in the journal to be replayed later on.
+	 * 
+	 * @throws Exception
+	 */
+	private void flushRelationships() throws Exception {
+		Map<String, List<Relationship>> byPublication = relationships.drain();
+		if (byPublication.isEmpty()) {
+			return;
+		}
+		long start = System.nanoTime();
+		final AtomicInteger count = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(getMaxConnections(), byPublication.size()), runnable -> {
+			Thread thread = new Thread(runnable, "relationships-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final AtomicInteger failures = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		for (List<Relationship> publicationRelationships : byPublication.values()) {
+			futures.add(executor.submit(() -> {
+				try {
+					String publication = publicationRelationships.get(0).left;
+					if (relationships.isReplayed(publication)) {
+						deleteRelationships(publication, publicationRelationships.stream().map(r -> r.type).collect(Collectors.toSet()));
+					}
+					for (Relationship relationship : publicationRelationships) {
+						createRelationship(relationship);
 					}
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Exception e) {
+					failures.incrementAndGet();
+					logger.error(MessageFormat.format("[!RELATIONSHIPS] Unable to create the relationships of ''{0}'': {1}", 
+							publicationRelationships.get(0), e.getLocalizedMessage()));
 				}
-				// Second, link the authors with the publication
-				{
-					for (Person person : personsInDSpace) {
-						HttpPost post = new HttpPost(output + AUTHOR_SEMINAR_RELATIONSHIP_ENDPOINT);
-						post.setEntity(
-								new StringEntity(MessageFormat.format("{0}{1}/{2} \n {0}{1}/{3}", 
-										output, ITEMS_ENDPOINT, result.getUuid(), person.getUuid()),
-										ContentType.create("text/uri-list")));
-						post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-						post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-						
-						try (CloseableHttpResponse response = client.execute(post)) {
-							if (response.getCode() != HttpStatus.SC_CREATED) {
-								throw new MigrationException(
-										MessageFormat.format("Unable to create Relationship between ''{0}'' and ''{1}''. HTTP request returned code {2}.",
-												person.getUuid(), result.getUuid(), response.getCode()));
-							}
-							EntityUtils.consume(response.getEntity());
-							if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-								dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-							}
+				return null;
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw e;
+		} finally {
+			executor.shutdownNow();
+		}
+		logger.info(MessageFormat.format("[RELATIONSHIPS] Created the relationships of {0} publications in {1,number,#.##} s", 
+				byPublication.size() - failures.get(), (System.nanoTime() - start) / 1e9d));
+		if (failures.get() > 0) {
+			logger.warn(MessageFormat.format("[!RELATIONSHIPS] Unable to create the relationships of {0} publications, they can be replayed afterwards", 
+					failures.get()));
+		}
+	}
+	
+	/**
+	 * Deletes the relationships of the given types whose left item is the given
+	 * publication
+	 * 
+	 * @param publication
+	 * @param types
+	 * @throws Exception
+	 */
+	private void deleteRelationships(final String publication, final Set<Integer> types) throws Exception {
+		List<String> ids = new ArrayList<>();
+		int page = 0;
+		int totalPages = 1;
+		while (page < totalPages) {
+			URIBuilder builder = new URIBuilder(output + ITEMS_ENDPOINT + "/" + publication + "/relationships");
+			builder.setParameter("size", String.valueOf(PRELOAD_PAGE_SIZE));
+			builder.setParameter("page", String.valueOf(page));
+			HttpGet get = new HttpGet(builder.build());
+			dspaceAuth.authorize(get);
+			
+			try (CloseableHttpResponse response = httpClient.execute(get)) {
+				if (response.getCode() != HttpStatus.SC_OK) {
+					throw new MigrationException(MessageFormat.format("Unable to get the relationships of ''{0}''. HTTP request returned code {1}.", 
+							publication, response.getCode()));
+				}
+				JsonObject object = new Gson().fromJson(EntityUtils.toString(response.getEntity()), JsonObject.class);
+				dspaceAuth.update(get, response);
+				if (object.has("_embedded")) {
+					for (JsonElement element : object.get("_embedded").getAsJsonObject().get("relationships").getAsJsonArray()) {
+						JsonObject links = element.getAsJsonObject().get("_links").getAsJsonObject();
+						String type = StringUtils.substringAfterLast(links.get("relationshipType").getAsJsonObject().get("href").getAsString(), "/");
+						String left = StringUtils.substringAfterLast(links.get("leftItem").getAsJsonObject().get("href").getAsString(), "/");
+						if (publication.equals(left) && types.contains(Integer.valueOf(type))) {
+							ids.add(element.getAsJsonObject().get("id").getAsString());
 						}
 					}
 				}
+				totalPages = object.has("page") ? object.get("page").getAsJsonObject().get("totalPages").getAsInt() : 1;
 			}
+			page++;
+		}
+		for (String id : ids) {
+			HttpDelete delete = new HttpDelete(output + RELATIONSHIPS_ENDPOINT + "/" + id);
+			dspaceAuth.authorize(delete);
+			
+			try (CloseableHttpResponse response = httpClient.execute(delete)) {
+				if (response.getCode() != HttpStatus.SC_NO_CONTENT) {
+					throw new MigrationException(MessageFormat.format("Unable to delete Relationship ''{0}''. HTTP request returned code {1}.",
+							id, response.getCode()));
+				}
+				EntityUtils.consume(response.getEntity());
+				dspaceAuth.update(delete, response);
+			}
+		}
+		if (!ids.isEmpty()) {
+			logger.debug(MessageFormat.format("[RELATIONSHIPS] Deleted {0} relationships of ''{1}''", ids.size(), publication));
 		}
 	}
 	
+	private void createRelationship(final Relationship relationship) throws Exception {
+		for (int attempt = 1;; attempt++) {
+			HttpPost post = new HttpPost(output + RELATIONSHIPS_ENDPOINT + "?relationshipType=" + relationship.type);
+			post.setEntity(
+					new StringEntity(MessageFormat.format("{0}{1}/{2} \n {0}{1}/{3}", 
+							output, ITEMS_ENDPOINT, relationship.left, relationship.right),
+							ContentType.create("text/uri-list")));
+			dspaceAuth.authorize(post);
+			
+			try (CloseableHttpResponse response = httpClient.execute(post)) {
+				EntityUtils.consume(response.getEntity());
+				dspaceAuth.update(post, response);
+				if (response.getCode() == HttpStatus.SC_CREATED) {
+					relationships.created(relationship);
+					return;
+				} else if (response.getCode() < HttpStatus.SC_SERVER_ERROR || attempt == RELATIONSHIP_ATTEMPTS) {
+					throw new MigrationException(
+							MessageFormat.format("Unable to create Relationship between ''{0}'' and ''{1}''. HTTP request returned code {2}.",
+									relationship.right, relationship.left, response.getCode()));
+				}
+			} catch (IOException e) {
+				if (attempt == RELATIONSHIP_ATTEMPTS) {
+					throw e;
+				}
+			}
+			logger.warn(MessageFormat.format("[!RELATIONSHIPS] Unable to create the relationship of ''{0}'', retrying ({1}/{2})...", 
+					relationship, attempt, RELATIONSHIP_ATTEMPTS - 1));
+			Thread.sleep(RELATIONSHIP_RETRY_DELAY * attempt);
+		}
+	}
+	
+	/**
+	 * Returns the {@link Person} of the given {@link Author}, searching (or
+	 * creating) it in DSpace only the first time the author is found in the
+	 * migration, and updating it with the new information of the author.
+	 * Concurrent resolutions of the same author are merged by the
+	 * {@link PersonCache}, so only the creation of persons is serialized
+	 * 
+	 * @param authorsCollection
+	 * @param author
+	 * @return
+	 * @throws MigrationException
+	 */
+	private Person resolvePerson(final Collection authorsCollection, final Author author) throws MigrationException {
+		return personCache.resolve(author, () -> {
+			Person person = findPersonFromAuthor(author);
+			if (person == null) {
+				synchronized (personsLock) {
+					// The person may have been created meanwhile for another
+					// author (e.g., a different spelling of the same name)
+					person = findPersonFromAuthor(author);
+					if (person == null) {
+						return createPersonFromAuthor(authorsCollection, author);
+					}
+				}
+			}
+			return updatePersonFromAuthor(person, author);
+		}, person -> {
+			// The person may have been updated by a concurrent publication
+			return updatePersonFromAuthor(personCache.get(person.getUuid()), author);
+		});
+	}
+
 	private Person findPersonFromAuthor(Author author) throws MigrationException {
 		Person result = null;
 		// First try to search by e-mail
@@ -940,7 +1498,9 @@ public class Migrator {
 	}
 
 	private Person searchAuthorByEmail(Author author) throws MigrationException {
-		List<Person> result = findPersons(author.getEmail());
+		List<Person> result = personIndex != null 
+				? personIndex.findByEmail(author.getEmail(), author.getFullName()) 
+				: findPersons(author.getEmail());
 		Person person = null;
 		if (result.size() > 0) {
 			person = result.get(0);
@@ -981,12 +1541,21 @@ public class Migrator {
 	}
 
 	private Person searchAuthorByName(Author author) throws MigrationException {
-		List<Person> result = findPersons(author.getFullName());
+		List<Person> result = personIndex != null 
+				? personIndex.findByName(author.getFullName(), NAME_SIMILARITY_THRESHOLD_WHEN_MAIL_MATCHES) 
+				: findPersons(author.getFullName());
 		Person person = null;
-		if (result.size() > 0) {
-			person = result.get(0);
+		Double maxSimilarity = 0.0d;
+		// Search results are not necessarily sorted by similarity, so check all of them
+		for (Person candidate : result) {
+			Double similarity = getMaxSignatureNameSimilarity(author, candidate);
+			if (person == null || similarity > maxSimilarity) {
+				person = candidate;
+				maxSimilarity = similarity;
+			}
+		}
+		if (person != null) {
 			// @formatter:off
-			Double maxSimilarity = getMaxSignatureNameSimilarity(author, person);
 			if (maxSimilarity > NAME_SIMILARITY_THRESHOLD_WHEN_NAME_MATCHES) {
 				logger.debug(MessageFormat.format(
 						"Exact match found:\n"
@@ -1041,11 +1610,7 @@ public class Migrator {
 	}
 
 	private Double getMaxSignatureNameSimilarity(Author author, Person person) {
-		List<String> allAuthorNames = new ArrayList<>(person.getNameVariants());
-		allAuthorNames.add(person.getFullName());
-		Optional<Double> maxSimilarity = allAuthorNames.stream().map(variant -> SimpleNameMatcher.compareNamesSafe(author.getFullName(), variant))
-				.max(Comparator.naturalOrder());
-		return maxSimilarity.orElse(0.0d);
+		return PersonIndex.getSimilarity(author.getFullName(), person);
 	}
 	
 //	private Person findPersonFromAuthor(Author author) throws MigrationException {
@@ -1229,7 +1794,7 @@ public class Migrator {
 	
 	private List<Person> findPersons(String query) throws  MigrationException {
 		List<Person> result = new ArrayList<>();
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
+		try {
 			URIBuilder builder = new URIBuilder(output + DISCOVER_SEARCH_OBJECTS_ENDPOINT);
 			builder.setParameter("configuration", "administrativeView");
 			builder.setParameter("dsoType", "item");
@@ -1239,32 +1804,18 @@ public class Migrator {
 																		// In such a case, remove the colon since the API fails to process it
 			
 			HttpGet get = new HttpGet(builder.build());
-			get.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-			get.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+			dspaceAuth.authorize(get);
 			
-			try (CloseableHttpResponse response = client.execute(get)) {
+			try (CloseableHttpResponse response = httpClient.execute(get)) {
 				if (response.getCode() != HttpStatus.SC_OK) {
 					throw new MigrationException(
 							MessageFormat.format("Unable to create Author for query ''{0}''. HTTP request returned code {1}.",
 									query, response.getCode()));
 				}
 				JsonObject object = new Gson().fromJson(EntityUtils.toString(response.getEntity()), JsonObject.class);
-				if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-					dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-				}
+				dspaceAuth.update(get, response);
 				try {
-					JsonArray array = object
-							.get("_embedded").getAsJsonObject()
-							.get("searchResult").getAsJsonObject()
-							.get("_embedded").getAsJsonObject()
-							.get("objects").getAsJsonArray();
-					for (int i = 0; i < array.size(); i++) {
-						result.add(new Gson().fromJson(
-								array.get(i).getAsJsonObject()
-								.get("_embedded").getAsJsonObject()
-								.get("indexableObject").toString(),
-								Person.class));
-					}
+					result.addAll(parsePersons(object));
 				} catch (Exception e) {
 					// If result cannot be parsed, ignore...
 				}
@@ -1274,8 +1825,101 @@ public class Migrator {
 		}
 		return result;
 	}
+	
+	private static List<Person> parsePersons(JsonObject searchResponse) {
+		List<Person> result = new ArrayList<>();
+		JsonArray array = searchResponse
+				.get("_embedded").getAsJsonObject()
+				.get("searchResult").getAsJsonObject()
+				.get("_embedded").getAsJsonObject()
+				.get("objects").getAsJsonArray();
+		for (int i = 0; i < array.size(); i++) {
+			result.add(new Gson().fromJson(
+					array.get(i).getAsJsonObject()
+					.get("_embedded").getAsJsonObject()
+					.get("indexableObject").toString(),
+					Person.class));
+		}
+		return result;
+	}
+	
+	/**
+	 * Pages through all the persons of the given authors {@link Collection} and
+	 * builds a {@link PersonIndex} with them, so that authors can be matched
+	 * locally instead of searching them one by one
+	 * 
+	 * @param authorsCollection
+	 * @return
+	 * @throws MigrationException
+	 */
+	private PersonIndex preloadPersons(final Collection authorsCollection) throws MigrationException {
+		long start = System.nanoTime();
+		PersonIndex index = new PersonIndex();
+		int page = 0;
+		int totalPages = 1;
+		try {
+			while (page < totalPages) {
+				URIBuilder builder = new URIBuilder(output + DISCOVER_SEARCH_OBJECTS_ENDPOINT);
+				builder.setParameter("configuration", "administrativeView");
+				builder.setParameter("dsoType", "item");
+				builder.setParameter("scope", authorsCollection.getUuid());
+				builder.setParameter("sort", "dc.date.accessioned,ASC");
+				builder.setParameter("f.entityType", Item.Type.AUTHOR.getName() + ",equals");
+				builder.setParameter("size", String.valueOf(PRELOAD_PAGE_SIZE));
+				builder.setParameter("page", String.valueOf(page));
+				
+				HttpGet get = new HttpGet(builder.build());
+				dspaceAuth.authorize(get);
+				
+				try (CloseableHttpResponse response = httpClient.execute(get)) {
+					if (response.getCode() != HttpStatus.SC_OK) {
+						throw new MigrationException(
+								MessageFormat.format("Unable to preload Authors (page {0}). HTTP request returned code {1}.",
+										page, response.getCode()));
+					}
+					JsonObject object = new Gson().fromJson(EntityUtils.toString(response.getEntity()), JsonObject.class);
+					dspaceAuth.update(get, response);
+					for (Person person : parsePersons(object)) {
+						index.put(person);
+					}
+					totalPages = object
+							.get("_embedded").getAsJsonObject()
+							.get("searchResult").getAsJsonObject()
+							.get("page").getAsJsonObject()
+							.get("totalPages").getAsInt();
+				}
+				page++;
+			}
+		} catch (MigrationException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new MigrationException(e);
+		}
+		logger.info(MessageFormat.format("[PERSON] Preloaded {0} persons in {1} requests ({2,number,#.##} s)",
+				index.size(), page, (System.nanoTime() - start) / 1e9d));
+		return index;
+	}
 
-	private void updatePersonFromAuthor(final Person personInDSpace, final Author author) throws  MigrationException {
+	/**
+	 * Updates the given {@link Person} with the information of the {@link Author}
+	 * (e.g., new e-mails, affiliations or name variants) if needed. The
+	 * updates are computed against the pending version of the person (see
+	 * {@link PersonPatches#getPending(Person)}), so that the updates not sent yet
+	 * are kept
+	 * 
+	 * @param person
+	 * @param author
+	 * @return The updated {@link Person}, or the pending version of
+	 *         <code>person</code> if it did not need to be updated
+	 * @throws MigrationException
+	 */
+	private Person updatePersonFromAuthor(final Person person, final Author author) throws  MigrationException {
+		synchronized (personUpdatesLock) {
+			return updatePendingPersonFromAuthor(personPatches.getPending(person), author);
+		}
+	}
+
+	private Person updatePendingPersonFromAuthor(final Person personInDSpace, final Author author) throws  MigrationException {
 		List<JsonObject> objs = new ArrayList<>();
 		
 		if ((
@@ -1465,52 +2109,91 @@ public class Migrator {
 		}
 
 		if (objs.isEmpty()) {
-			return;
+			return personInDSpace;
 		}
 		
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
-			HttpPatch patch = new HttpPatch(output + ITEMS_ENDPOINT + "/" + personInDSpace.getUuid());
-			patch.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-			patch.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-			patch.setEntity(new StringEntity(objs.toString(), ContentType.APPLICATION_JSON));
-			
-			try (CloseableHttpResponse response = client.execute(patch)) {
-				if (response.getCode() != HttpStatus.SC_OK) {
-					throw new MigrationException(
-							MessageFormat.format("Unable to update Person ''{0}''. HTTP request returned code {1}.",
-									personInDSpace.getUuid(), response.getCode()));
-				}
-				EntityUtils.consume(response.getEntity());
-				if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-					dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
+		// The operations are sent later on, coalesced with the other updates of the person
+		Person result = personPatches.apply(personInDSpace, objs);
+		if (personIndex != null) {
+			personIndex.put(result);
+		}
+		if (personPatches.isDue()) {
+			flushPersonUpdates();
+		}
+		return result;
+	}
+	
+	/**
+	 * Sends the pending updates of the persons (see {@link PersonPatches}) to
+	 * DSpace, using a single PATCH request per person
+	 * 
+	 * @throws MigrationException
+	 */
+	private void flushPersonUpdates() throws MigrationException {
+		synchronized (personUpdatesLock) {
+			if (personPatches.isEmpty()) {
+				return;
+			}
+			// Persons are only removed from the queue once their patch is sent, so
+			// that failed patches can be retried in the next flush
+			Map<String, List<JsonObject>> patches = personPatches.getPatches();
+			MigrationException failure = null;
+			for (Map.Entry<String, List<JsonObject>> entry : patches.entrySet()) {
+				try {
+					HttpPatch patch = new HttpPatch(output + ITEMS_ENDPOINT + "/" + entry.getKey());
+					dspaceAuth.authorize(patch);
+					patch.setEntity(new StringEntity(entry.getValue().toString(), ContentType.APPLICATION_JSON));
+					
+					try (CloseableHttpResponse response = httpClient.execute(patch)) {
+						if (response.getCode() != HttpStatus.SC_OK) {
+							throw new MigrationException(
+									MessageFormat.format("Unable to update Person ''{0}''. HTTP request returned code {1}.",
+											entry.getKey(), response.getCode()));
+						}
+						// The response contains the updated person
+						Person result = Person.fromHttpEntity(response.getEntity());
+						if (personIndex != null) {
+							personIndex.put(result);
+						}
+						personCache.update(result);
+						personPatches.sent(entry.getKey(), entry.getValue());
+						dspaceAuth.update(patch, response);
+					}
+				} catch (Exception e) {
+					logger.error(MessageFormat.format("[!PERSON] Unable to send the updates of Person ''{0}'': {1}", entry.getKey(), e.getMessage()));
+					if (failure == null) {
+						failure = e instanceof MigrationException ? (MigrationException) e : new MigrationException(e);
+					}
 				}
 			}
-		} catch (Exception e) {
-			throw new MigrationException(e);
+			if (failure != null) {
+				throw failure;
+			}
+			logger.debug(MessageFormat.format("[PERSON] Flushed the updates of {0} persons", patches.size()));
 		}
 	}
 	
 	private Person createPersonFromAuthor(final Collection authorsCollection, final Author author) throws  MigrationException {
 		Person result = null;
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
+		try {
 			URIBuilder builder = new URIBuilder(output + ITEMS_ENDPOINT);
 			builder.setParameter("owningCollection", authorsCollection.getUuid());
 			
 			HttpPost post = new HttpPost(builder.build());
 			post.setEntity(Person.fromAuthor(author).toHttpEntity());
-			post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-			post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+			dspaceAuth.authorize(post);
 	
-			try (CloseableHttpResponse response = client.execute(post)) {
+			try (CloseableHttpResponse response = httpClient.execute(post)) {
 				if (response.getCode() != HttpStatus.SC_CREATED) {
 					throw new MigrationException(
 							MessageFormat.format("Unable to create Person for ''{0}''. HTTP request returned code {1}.",
 							author.getFullName(), response.getCode()));
 				}
 				result = Person.fromHttpEntity(response.getEntity());
-				if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-					dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-				}
+				dspaceAuth.update(post, response);
+			}
+			if (personIndex != null) {
+				personIndex.put(result);
 			}
 		} catch (Exception e) {
 			throw new MigrationException(e);
@@ -1570,45 +2253,37 @@ public class Migrator {
 		obj1.addProperty("path", "/withdrawn");
 		obj1.addProperty("value", true);
 		objs.add(obj1);
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
-			HttpPatch patch = new HttpPatch(output + ITEMS_ENDPOINT + "/" + result.getUuid());
-			patch.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-			patch.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-			patch.setEntity(new StringEntity(objs.toString(), ContentType.APPLICATION_JSON));
-			try (CloseableHttpResponse response = client.execute(patch)) {
-				if (response.getCode() != HttpStatus.SC_OK) {
-					throw new MigrationException(MessageFormat.format("Unable to withdraw Seminar ''{0}''. HTTP request returned code {1}.",
-									result.getUuid(), response.getCode()));
-				}
-				EntityUtils.consume(response.getEntity());
-				if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-					dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-				}
+		HttpPatch patch = new HttpPatch(output + ITEMS_ENDPOINT + "/" + result.getUuid());
+		dspaceAuth.authorize(patch);
+		patch.setEntity(new StringEntity(objs.toString(), ContentType.APPLICATION_JSON));
+		try (CloseableHttpResponse response = httpClient.execute(patch)) {
+			if (response.getCode() != HttpStatus.SC_OK) {
+				throw new MigrationException(MessageFormat.format("Unable to withdraw Seminar ''{0}''. HTTP request returned code {1}.",
+								result.getUuid(), response.getCode()));
 			}
+			EntityUtils.consume(response.getEntity());
+			dspaceAuth.update(patch, response);
 		}
 	}
 	
 	private Publication createPublication(final Collection parent, final Publication publication) throws  MigrationException {
 		Publication result = null;
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
+		try {
 			{
 				URIBuilder builder = new URIBuilder(output + ITEMS_ENDPOINT);
 			    builder.setParameter("owningCollection", parent.getUuid());
 				
 				HttpPost post = new HttpPost(builder.build());
 				post.setEntity(publication.toHttpEntity());
-				post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+				dspaceAuth.authorize(post);
 	
-				try (CloseableHttpResponse response = client.execute(post)) {
+				try (CloseableHttpResponse response = httpClient.execute(post)) {
 					if (response.getCode() != HttpStatus.SC_CREATED) {
 						throw new MigrationException(MessageFormat.format("Unable to create Publication from ''{0}''. HTTP request returned code {1}.",
 								publication, response.getCode()));
 					}
 					result = Publication.fromHttpEntity(response.getEntity());
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
+					dspaceAuth.update(post, response);
 				}
 			}
 			// Now that the Publication has been already created, update some fields...
@@ -1623,19 +2298,16 @@ public class Migrator {
 				}
 	
 				HttpPut put = new HttpPut(output + ITEMS_ENDPOINT + "/" + result.getUuid());
-				put.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				put.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
+				dspaceAuth.authorize(put);
 				put.setEntity(result.toHttpEntity());
 				
-				try (CloseableHttpResponse response = client.execute(put)) {
+				try (CloseableHttpResponse response = httpClient.execute(put)) {
 					if (response.getCode() != HttpStatus.SC_OK) {
 						throw new MigrationException(MessageFormat.format("Unable to update Publication from ''{0}''. HTTP request returned code {1}.",
 								publication.getSistedesUri(), response.getCode()));
 					}
 					result = Publication.fromHttpEntity(response.getEntity());
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
+					dspaceAuth.update(put, response);
 				}
 			}
 			setHandle(publication.getSistedesIdentifier(), result.getHandleUrl(), prefix, auth);
@@ -1647,68 +2319,138 @@ public class Migrator {
 	
 	private List<Identifiable> attachBinaryFiles(final String bundleName, final Publication publication, final File[] files) throws Exception {
 		List<Identifiable> result = new ArrayList<>();
-		try (CloseableHttpClient client = httpClientBuilder.build()) {
-			Bundle bundle = new Bundle(bundleName);
-			// First create a Bundle...
-			{
-				logger.info(MessageFormat.format( "Creating Bundle for ''{0}''.", publication.getTitle()));
-				HttpPost post = new HttpPost(output + String.format(ITEM_BUNDLES_ENDPOINT, publication.getUuid()));
-				post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-				post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-				post.setEntity(new StringEntity(new Gson().toJson(bundle), ContentType.APPLICATION_JSON));
+		// First create a Bundle...
+		Bundle bundle = createBundle(bundleName, publication);
+		
+		// Afterwards, upload a file inside the bundle...
+		for (File file : files) {
+			logger.info(MessageFormat.format( "Uploading ''{0}'' ({1,number,#.#} MB)...",
+					file.getName(), FileUtils.sizeOfAsBigInteger(file).doubleValue() / (1024D * 1024D)));
+			result.add(uploadBitstream(bundle, publication, new FileBody(file, ContentType.DEFAULT_BINARY, file.getName())));
+		}
+		return result;
+	}
+	
+	/**
+	 * Uploads the contents of <code>url</code> into a new bundle of the
+	 * publication, streaming them from the source into the upload request (see
+	 * {@link StreamingBody}). The contents are staged in <code>file</code>, as in
+	 * {@link #attachBinaryFiles(String, Publication, File[])}, if their length is
+	 * not known in advance, or if the streamed upload fails (or does not match
+	 * the streamed contents) and must be retried.
+	 * 
+	 * @return The uploaded bitstream, or <code>null</code> if the contents could
+	 *         not be retrieved
+	 */
+	private Identifiable attachStreamedFile(final String bundleName, final Publication publication, final URL url, final File file) throws Exception {
+		URLConnection connection = DelayedStreamOpener.download(url, 0);
+		if (!StreamingBody.isStreamable(connection)) {
+			logger.debug(MessageFormat.format("[PDF] Unable to stream ''{0}'', staging it on disk...", url));
+			try {
+				// Reuse the (already open) connection
+				PdfPrefetcher.fetch(url, connection, file);
+			} catch (IOException e) {
+				logger.error("Unable to retrieve PDF file for " + url);
+				return null;
+			}
+			return attachBinaryFiles(bundleName, publication, new File[] { file }).get(0);
+		}
+		Bundle bundle = createBundle(bundleName, publication);
+		StreamingBody body = new StreamingBody(connection, ContentType.DEFAULT_BINARY, file.getName());
+		logger.info(MessageFormat.format( "Streaming ''{0}'' ({1,number,#.#} MB)...",
+				file.getName(), body.getContentLength() / (1024D * 1024D)));
+		long start = System.nanoTime();
+		Bitstream bitstream;
+		try {
+			bitstream = uploadBitstream(bundle, publication, body);
+		} catch (IOException | MigrationException e) {
+			disconnect(connection);
+			logger.warn(MessageFormat.format("[!PDF] Streaming of ''{0}'' failed after {1} bytes ({2}), staging it on disk...",
+					url, body.getTransferred(), e.getLocalizedMessage()));
+			PdfPrefetcher.fetch(url, file);
+			return uploadBitstream(bundle, publication, new FileBody(file, ContentType.DEFAULT_BINARY, file.getName()));
+		}
+		if (bitstream.sizeBytes != body.getTransferred() || (bitstream.checkSum != null 
+				&& "MD5".equalsIgnoreCase(bitstream.checkSum.checkSumAlgorithm) && !body.getChecksum().equalsIgnoreCase(bitstream.checkSum.value))) {
+			logger.warn(MessageFormat.format("[!PDF] Bitstream ''{0}'' does not match ''{1}'' ({2} bytes, MD5 {3}), staging it on disk...",
+					bitstream.id, url, body.getTransferred(), body.getChecksum()));
+			deleteBitstream(bitstream);
+			PdfPrefetcher.fetch(url, file);
+			return uploadBitstream(bundle, publication, new FileBody(file, ContentType.DEFAULT_BINARY, file.getName()));
+		}
+		logger.debug(MessageFormat.format("[PDF] Streamed ''{0}'' ({1} bytes, MD5 {2}) in {3,number,#.##} s", 
+				url, body.getTransferred(), body.getChecksum(), (System.nanoTime() - start) / 1e9d));
+		return bitstream;
+	}
+	
+	private void deleteBitstream(final Bitstream bitstream) throws Exception {
+		HttpDelete delete = new HttpDelete(output + BITSTREAMS_ENDPOINT + "/" + bitstream.id);
+		dspaceAuth.authorize(delete);
+		
+		try (CloseableHttpResponse response = httpClient.execute(delete)) {
+			if (response.getCode() != HttpStatus.SC_NO_CONTENT) {
+				throw new MigrationException(MessageFormat.format("Unable to delete Bitstream ''{0}''. HTTP request returned code {1}.",
+						bitstream.id, response.getCode()));
+			}
+			EntityUtils.consume(response.getEntity());
+			dspaceAuth.update(delete, response);
+		}
+	}
+	
+	private static void disconnect(URLConnection connection) {
+		if (connection instanceof HttpURLConnection) {
+			((HttpURLConnection) connection).disconnect();
+		}
+	}
+	
+	private Bundle createBundle(final String bundleName, final Publication publication) throws Exception {
+		Bundle bundle = new Bundle(bundleName);
+		{
+			logger.info(MessageFormat.format( "Creating Bundle for ''{0}''.", publication.getTitle()));
+			HttpPost post = new HttpPost(output + String.format(ITEM_BUNDLES_ENDPOINT, publication.getUuid()));
+			dspaceAuth.authorize(post);
+			post.setEntity(new StringEntity(new Gson().toJson(bundle), ContentType.APPLICATION_JSON));
 
-				try (CloseableHttpResponse response = client.execute(post)) {
-					if (response.getCode() != HttpStatus.SC_CREATED) {
-						throw new MigrationException(
-								MessageFormat.format("Unable to create bundles for ''{0}''. HTTP request returned code {1}.",
-										publication.getTitle(), response.getCode()));
-					}
-					bundle = new Gson().fromJson(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8), Bundle.class);
-					if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-						dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-					}
+			try (CloseableHttpResponse response = httpClient.execute(post)) {
+				if (response.getCode() != HttpStatus.SC_CREATED) {
+					throw new MigrationException(
+							MessageFormat.format("Unable to create bundles for ''{0}''. HTTP request returned code {1}.",
+									publication.getTitle(), response.getCode()));
 				}
+				bundle = new Gson().fromJson(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8), Bundle.class);
+				dspaceAuth.update(post, response);
 			}
-			
-			// Afterwards, upload a file inside the bundle...
-			{
-				for (File file : files) {
-					logger.info(MessageFormat.format( "Uploading ''{0}'' ({1,number,#.#} MB)...",
-							file.getName(), FileUtils.sizeOfAsBigInteger(file).doubleValue() / (1024D * 1024D)));
-					HttpPost post = new HttpPost(output + String.format(BUNDLES_BITSTREAMS_ENDPOINT, bundle.getUuid()));
-					post.setHeader(X_XSRF_TOKEN, dspaceAuth.getXsrfToken());
-					post.setHeader(AUTHORIZATION_TOKEN, dspaceAuth.getJwtToken());
-					
-					MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-					builder.addBinaryBody("file", file, ContentType.DEFAULT_BINARY, file.getName());
-					post.setEntity(builder.build());
-					
-					try (CloseableHttpResponse response = client.execute(post)) {
-						if (response.getCode() != HttpStatus.SC_CREATED) {
-							throw new MigrationException(
-									MessageFormat.format("Unable to upload file for ''{0}''. HTTP request returned code {1}.",
-											publication.getTitle(), response.getCode()));
-						}
-						String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-						result.add(new Gson().fromJson(json, Identifiable.class));
-						if (response.getFirstHeader(DSPACE_XSRF_TOKEN) != null) {
-							dspaceAuth.updateXsrfToken(response.getFirstHeader(DSPACE_XSRF_TOKEN).getValue());
-						}
-					}
-				}
+		}
+		return bundle;
+	}
+	
+	private Bitstream uploadBitstream(final Bundle bundle, final Publication publication, final ContentBody body) throws Exception {
+		HttpPost post = new HttpPost(output + String.format(BUNDLES_BITSTREAMS_ENDPOINT, bundle.getUuid()));
+		dspaceAuth.authorize(post);
+		
+		MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+		builder.addPart("file", body);
+		post.setEntity(builder.build());
+		
+		try (CloseableHttpResponse response = httpClient.execute(post)) {
+			if (response.getCode() != HttpStatus.SC_CREATED) {
+				throw new MigrationException(
+						MessageFormat.format("Unable to upload file for ''{0}''. HTTP request returned code {1}.",
+								publication.getTitle(), response.getCode()));
 			}
+			String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+			Bitstream result = new Gson().fromJson(json, Bitstream.class);
+			dspaceAuth.update(post, response);
+			return result;
 		}
-		return result;
 	}
 	
 	private Site getSite() throws IOException, ParseException {
 		if (site == null) {
-			try (CloseableHttpClient client = httpClientBuilder.build()) {
-				HttpGet get = new HttpGet(output + SITES_ENDPOINT);
-				try (CloseableHttpResponse response = client.execute(get)) {
-					String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-					site = new Gson().fromJson(json, SitesResponse.class)._embedded.sites.get(0);
-				}
+			HttpGet get = new HttpGet(output + SITES_ENDPOINT);
+			try (CloseableHttpResponse response = httpClient.execute(get)) {
+				String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+				site = new Gson().fromJson(json, SitesResponse.class)._embedded.sites.get(0);
 			}
 		}
 		return site;
@@ -1738,6 +2480,34 @@ public class Migrator {
 		return (boolean) options.getOrDefault(Options.MIGRATE_DOCUMENTS, false);
 	}
 	
+	private int getMaxConnections() {
+		return (int) options.getOrDefault(Options.MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+	}
+	
+	private int getTimeout() {
+		return (int) options.getOrDefault(Options.TIMEOUT, DEFAULT_TIMEOUT);
+	}
+	
+	private int getThreads() {
+		return (int) options.getOrDefault(Options.THREADS, DEFAULT_THREADS);
+	}
+	
+	private boolean isRelationshipsOnly() {
+		return (boolean) options.getOrDefault(Options.RELATIONSHIPS_ONLY, false);
+	}
+	
+	private int getPersonFlushInterval() {
+		return (int) options.getOrDefault(Options.PERSON_FLUSH_INTERVAL, DEFAULT_PERSON_FLUSH_INTERVAL);
+	}
+	
+	private boolean isStreamUploads() {
+		return (boolean) options.getOrDefault(Options.STREAM_UPLOADS, false);
+	}
+	
+	private boolean isPreloadAuthors() {
+		return (boolean) options.getOrDefault(Options.PRELOAD_AUTHORS, false);
+	}
+	
 	private static void setHandle(String newHandle, String targetUrl, String prefix, PublicKeyAuthenticationInfo auth) throws HandleException, MigrationException  {
 		logger.info("[>HDL] Handle created: '" + newHandle + "' -> '" + targetUrl + "'");
 
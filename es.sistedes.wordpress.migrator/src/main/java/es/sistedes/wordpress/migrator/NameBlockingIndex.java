@@ -0,0 +1,214 @@
+package es.sistedes.wordpress.migrator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Blocking index for approximate name matching. Instead of comparing a name
+ * against all the indexed names, only the keys sharing a block with it are
+ * returned as candidates, so that the (expensive) similarity is computed just
+ * for a handful of them.
+ *
+ * Names are expected in the "Surname, Given name" form (names without a comma
+ * are considered to be only surnames). Blocks are built from the surname
+ * tokens, and from the initial of the given name followed by each surname
+ * token, which ranks higher the candidates with the same initial. If no
+ * surname token is shared, the character trigrams of the surname tokens are
+ * used instead, so that misspelled surnames can still be found. Lookups only
+ * scan the smallest blocks, and probe the membership of the candidates found
+ * in the largest ones, so their cost depends on the selectivity of the name
+ * rather than on the size of the index. Case,
+ * accents, punctuation and surname particles (see {@link #PARTICLES}) are
+ * ignored.
+ *
+ * @author agomez
+ *
+ */
+final class NameBlockingIndex {
+
+	private static final Pattern SEPARATORS = Pattern.compile("[\\p{Punct}\\s]+");
+	private static final Set<String> PARTICLES = new HashSet<>(
+			Arrays.asList("de", "del", "la", "las", "los", "y", "i", "da", "das", "do", "dos", "di", "du", "le", "van", "von", "der", "den"));
+
+	private static final String SURNAME_PREFIX = "s:";
+	private static final String INITIAL_PREFIX = "i:";
+	private static final int SURNAME_WEIGHT = 4;
+	private static final int INITIAL_WEIGHT = 2;
+	private static final double MIN_SHARED_TRIGRAMS = 1.0d / 3;
+	private static final int MAX_SCANNED_BLOCK_SIZE = 256;
+
+	private final Map<String, Set<String>> blocks = new HashMap<>();
+	private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+	/**
+	 * Adds the given names of <code>key</code> to the index
+	 *
+	 * @param key
+	 * @param names
+	 */
+	public void add(String key, Collection<String> names) {
+		Set<String> nameBlocks = new HashSet<>();
+		Set<String> nameTrigrams = new HashSet<>();
+		for (String name : names) {
+			getBlocks(name, nameBlocks, nameTrigrams);
+		}
+		for (String block : nameBlocks) {
+			blocks.computeIfAbsent(block, k -> new LinkedHashSet<>()).add(key);
+		}
+		for (String trigram : nameTrigrams) {
+			trigrams.computeIfAbsent(trigram, k -> new LinkedHashSet<>()).add(key);
+		}
+	}
+
+	/**
+	 * Removes the given names of <code>key</code> from the index, which must be
+	 * the same names it was added with
+	 *
+	 * @param key
+	 * @param names
+	 */
+	public void remove(String key, Collection<String> names) {
+		Set<String> nameBlocks = new HashSet<>();
+		Set<String> nameTrigrams = new HashSet<>();
+		for (String name : names) {
+			getBlocks(name, nameBlocks, nameTrigrams);
+		}
+		for (String block : nameBlocks) {
+			remove(blocks, block, key);
+		}
+		for (String trigram : nameTrigrams) {
+			remove(trigrams, trigram, key);
+		}
+	}
+
+	/**
+	 * Returns (at most <code>max</code>) keys whose names may match
+	 * <code>name</code>, those sharing more blocks with it first
+	 *
+	 * @param name
+	 * @param max
+	 * @return
+	 */
+	public List<String> getCandidates(String name, int max) {
+		Set<String> nameBlocks = new HashSet<>();
+		Set<String> nameTrigrams = new HashSet<>();
+		getBlocks(name, nameBlocks, nameTrigrams);
+
+		// Blocks are visited from the most to the least selective. Once there are
+		// candidates, large blocks are only probed to score them
+		Map<String, Integer> scores = new HashMap<>();
+		for (String block : sortBySize(blocks, nameBlocks)) {
+			int weight = block.startsWith(SURNAME_PREFIX) ? SURNAME_WEIGHT : INITIAL_WEIGHT;
+			Set<String> keys = blocks.get(block);
+			if (scores.isEmpty() || keys.size() <= MAX_SCANNED_BLOCK_SIZE) {
+				for (String key : keys) {
+					scores.merge(key, weight, Integer::sum);
+				}
+			} else {
+				probe(scores, keys, weight);
+			}
+		}
+		if (scores.isEmpty() && !nameTrigrams.isEmpty()) {
+			// No surname in common, but surnames may be misspelled. Candidates must
+			// share at least minShared trigrams, so they are necessarily found by
+			// scanning all but the (minShared - 1) largest blocks
+			int minShared = (int) Math.ceil(nameTrigrams.size() * MIN_SHARED_TRIGRAMS);
+			List<String> sorted = sortBySize(trigrams, nameTrigrams);
+			for (int i = 0; i < sorted.size(); i++) {
+				Set<String> keys = trigrams.get(sorted.get(i));
+				if (i < nameTrigrams.size() - minShared + 1) {
+					for (String key : keys) {
+						scores.merge(key, 1, Integer::sum);
+					}
+				} else {
+					probe(scores, keys, 1);
+				}
+			}
+			scores.values().removeIf(shared -> shared < minShared);
+		}
+
+		// Keep the best max candidates
+		PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+		for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+			best.add(entry);
+			if (best.size() > max) {
+				best.poll();
+			}
+		}
+		List<String> result = new ArrayList<>(best.size());
+		while (!best.isEmpty()) {
+			result.add(best.poll().getKey());
+		}
+		Collections.reverse(result);
+		return result;
+	}
+
+	private static List<String> sortBySize(Map<String, Set<String>> map, Set<String> blocks) {
+		return blocks.stream().filter(map::containsKey).sorted(Comparator.comparingInt(block -> map.get(block).size())).collect(Collectors.toList());
+	}
+
+	private static void probe(Map<String, Integer> scores, Set<String> keys, int weight) {
+		for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+			if (keys.contains(entry.getKey())) {
+				entry.setValue(entry.getValue() + weight);
+			}
+		}
+	}
+
+	private static void getBlocks(String name, Set<String> nameBlocks, Set<String> nameTrigrams) {
+		if (name == null) {
+			return;
+		}
+		int comma = name.indexOf(',');
+		List<String> surnames = getTokens(comma >= 0 ? name.substring(0, comma) : name);
+		List<String> givenNames = comma >= 0 ? getTokens(name.substring(comma + 1)) : Collections.emptyList();
+		for (String surname : surnames) {
+			if (surname.length() < 2) {
+				// Initials are not surnames
+				continue;
+			}
+			nameBlocks.add(SURNAME_PREFIX + surname);
+			if (!givenNames.isEmpty()) {
+				nameBlocks.add(INITIAL_PREFIX + givenNames.get(0).charAt(0) + surname);
+			}
+			String padded = "$" + surname + "$";
+			for (int i = 0; i + 3 <= padded.length(); i++) {
+				nameTrigrams.add(padded.substring(i, i + 3));
+			}
+		}
+	}
+
+	private static List<String> getTokens(String name) {
+		List<String> tokens = new ArrayList<>();
+		for (String token : SEPARATORS.split(StringUtils.stripAccents(StringUtils.toRootLowerCase(name)))) {
+			if (!token.isEmpty() && !PARTICLES.contains(token)) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private static void remove(Map<String, Set<String>> map, String block, String key) {
+		Set<String> keys = map.get(block);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				map.remove(block);
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package es.sistedes.wordpress.migrator;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+import es.sistedes.wordpress.migrator.dsmodel.Person;
+import es.sistedes.wordpress.migrator.wpmodel.Author;
+
+/**
+ * Run-wide cache of the {@link Person}s that the {@link Author}s of the
+ * publications have been resolved to. Authors are keyed by their (lowercased)
+ * e-mail and their normalized name (see {@link PersonIndex#normalize(String)}),
+ * so that the same author is only searched (or created) once per migration.
+ *
+ * Resolutions in progress are cached too: concurrent publications sharing an
+ * author wait for the same resolution instead of racing to create duplicate
+ * persons. Failed resolutions are not cached.
+ *
+ * The cache keeps the latest version of each resolved {@link Person}, which
+ * must be refreshed (see {@link #update(Person)}) when the person is changed
+ * in DSpace.
+ *
+ * @author agomez
+ *
+ */
+final class PersonCache {
+
+	/**
+	 * Resolves an author not found in the cache
+	 */
+	interface Resolver {
+		Person resolve() throws MigrationException;
+	}
+
+	/**
+	 * Updates the (already resolved) person of an author found in the cache
+	 */
+	interface Updater {
+		Person update(Person person) throws MigrationException;
+	}
+
+	private final Map<String, CompletableFuture<String>> resolutions = new ConcurrentHashMap<>();
+	private final Map<String, Person> persons = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong waits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Returns the {@link Person} of the given {@link Author}. If the author has
+	 * not been resolved yet, <code>resolver</code> is called (only once, even if
+	 * the same author is being resolved concurrently). Otherwise,
+	 * <code>updater</code> is called with the latest version of the cached
+	 * person, since other occurrences of the author may still carry new
+	 * information. The returned {@link Person}s are cached.
+	 *
+	 * @param author
+	 * @param resolver
+	 * @param updater
+	 * @return
+	 * @throws MigrationException
+	 */
+	public Person resolve(Author author, Resolver resolver, Updater updater) throws MigrationException {
+		String key = getKey(author);
+		CompletableFuture<String> resolution = new CompletableFuture<>();
+		CompletableFuture<String> previous = resolutions.putIfAbsent(key, resolution);
+		if (previous == null) {
+			misses.incrementAndGet();
+			try {
+				Person person = resolver.resolve();
+				update(person);
+				resolution.complete(person.getUuid());
+				return person;
+			} catch (MigrationException | RuntimeException e) {
+				// Let the next occurrence try again
+				resolutions.remove(key, resolution);
+				resolution.completeExceptionally(e);
+				throw e;
+			}
+		}
+		AtomicLong counter = previous.isDone() ? hits : waits;
+		counter.incrementAndGet();
+		String uuid;
+		try {
+			uuid = previous.join();
+		} catch (CompletionException e) {
+			// The concurrent resolution failed, try again
+			counter.decrementAndGet();
+			return resolve(author, resolver, updater);
+		}
+		Person person = updater.update(persons.get(uuid));
+		update(person);
+		return person;
+	}
+
+	/**
+	 * Returns the latest version of the {@link Person} with the given UUID, if
+	 * it has been cached
+	 *
+	 * @param uuid
+	 * @return
+	 */
+	public Person get(String uuid) {
+		return persons.get(uuid);
+	}
+
+	/**
+	 * Replaces the cached version of the given {@link Person}
+	 *
+	 * @param person
+	 */
+	public void update(Person person) {
+		persons.put(person.getUuid(), person);
+	}
+
+	@Override
+	public String toString() {
+		long lookups = hits.get() + waits.get() + misses.get();
+		return MessageFormat.format(
+				"{0} authors resolved with {1} lookups ({2} cached, {3} waited for a concurrent lookup, {4,number,#.#}% hit rate)",
+				lookups, misses.get(), hits.get(), waits.get(), lookups > 0 ? 100d * (hits.get() + waits.get()) / lookups : 0d);
+	}
+
+	private static String getKey(Author author) {
+		return StringUtils.defaultString(StringUtils.toRootLowerCase(author.getEmail())) + "|" + PersonIndex.normalize(author.getFullName());
+	}
+}
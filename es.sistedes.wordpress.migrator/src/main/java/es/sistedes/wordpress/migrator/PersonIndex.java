@@ -0,0 +1,195 @@
+package es.sistedes.wordpress.migrator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.simplenamematcher.SimpleNameMatcher;
+
+import es.sistedes.wordpress.migrator.dsmodel.Person;
+
+/**
+ * In-memory index of the {@link Person}s already in DSpace, so that authors can
+ * be matched locally instead of querying the discovery endpoint for each one.
+ * Persons are indexed by their (lowercased) e-mails, and by their normalized
+ * full name and name variants. Approximate matches are searched only among
+ * the candidates of a {@link NameBlockingIndex}, and are ranked using
+ * {@link SimpleNameMatcher}.
+ *
+ * The index is thread-safe, so that concurrent publications can resolve their
+ * authors at the same time, but callers must keep it in sync with DSpace (see
+ * {@link #put(Person)}) whenever a person is created or updated.
+ *
+ * @author agomez
+ *
+ */
+final class PersonIndex {
+
+	private static final Pattern NON_WORD = Pattern.compile("[\\p{Punct}\\s]+");
+	private static final int MAX_CANDIDATES = 10;
+
+	private final Map<String, Person> persons = new LinkedHashMap<>();
+	private final Map<String, Set<String>> byEmail = new HashMap<>();
+	private final Map<String, Set<String>> byName = new HashMap<>();
+	private final NameBlockingIndex blocks = new NameBlockingIndex();
+
+	/**
+	 * Adds the given {@link Person} to the index, replacing the previous version
+	 * of the same person (i.e., with the same UUID), if any
+	 *
+	 * @param person
+	 */
+	public synchronized void put(Person person) {
+		Person previous = persons.put(person.getUuid(), person);
+		if (previous != null) {
+			unindex(previous);
+		}
+		for (String email : person.getEmails()) {
+			byEmail.computeIfAbsent(StringUtils.toRootLowerCase(email), k -> new LinkedHashSet<>()).add(person.getUuid());
+		}
+		for (String name : getNames(person)) {
+			byName.computeIfAbsent(normalize(name), k -> new LinkedHashSet<>()).add(person.getUuid());
+		}
+		blocks.add(person.getUuid(), getNames(person));
+	}
+
+	public synchronized int size() {
+		return persons.size();
+	}
+
+	/**
+	 * Returns the {@link Person}s with the given e-mail, the most similar to
+	 * <code>fullName</code> first
+	 *
+	 * @param email
+	 * @param fullName
+	 * @return
+	 */
+	public synchronized List<Person> findByEmail(String email, String fullName) {
+		return rank(byEmail.get(StringUtils.toRootLowerCase(email)), fullName);
+	}
+
+	/**
+	 * Returns the {@link Person}s whose full name or any of its variants is
+	 * <code>fullName</code> (ignoring case, accents, punctuation and spacing),
+	 * followed by the candidates of the blocking index whose similarity is at
+	 * least <code>minSimilarity</code>. Both groups are sorted by similarity,
+	 * the most similar first.
+	 *
+	 * @param fullName
+	 * @param minSimilarity
+	 * @return
+	 */
+	public synchronized List<Person> findByName(String fullName, double minSimilarity) {
+		List<Person> result = new ArrayList<>(rank(byName.get(normalize(fullName)), fullName));
+		Map<Person, Double> similarities = new HashMap<>();
+		List<Person> candidates = new ArrayList<>();
+		for (String uuid : blocks.getCandidates(fullName, MAX_CANDIDATES)) {
+			Person person = persons.get(uuid);
+			if (!result.contains(person)) {
+				double similarity = getSimilarity(fullName, person, minSimilarity);
+				if (similarity >= minSimilarity) {
+					similarities.put(person, similarity);
+					candidates.add(person);
+				}
+			}
+		}
+		candidates.sort(Comparator.comparingDouble((Person p) -> similarities.get(p)).reversed());
+		result.addAll(candidates);
+		return result;
+	}
+
+	/**
+	 * Returns the similarity (in %) between <code>fullName</code> and the most
+	 * similar name (or name variant) of the given {@link Person}
+	 *
+	 * @param fullName
+	 * @param person
+	 * @return
+	 */
+	public static double getSimilarity(String fullName, Person person) {
+		double result = 0.0d;
+		for (String name : getNames(person)) {
+			result = Math.max(result, SimpleNameMatcher.compareNamesSafe(fullName, name));
+		}
+		return result;
+	}
+
+	/**
+	 * Same as {@link #getSimilarity(String, Person)}, but returns 0 if the
+	 * similarity is below <code>minSimilarity</code>, which is much cheaper to
+	 * compute for dissimilar names
+	 *
+	 * @param fullName
+	 * @param person
+	 * @param minSimilarity
+	 * @return
+	 */
+	public static double getSimilarity(String fullName, Person person, double minSimilarity) {
+		double result = 0.0d;
+		for (String name : getNames(person)) {
+			result = Math.max(result, SimpleNameMatcher.compareNamesSafe(fullName, name, Math.max(result, minSimilarity)));
+		}
+		return result;
+	}
+
+	private List<Person> rank(Set<String> uuids, String fullName) {
+		if (uuids == null || uuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Person> result = new ArrayList<>();
+		for (String uuid : uuids) {
+			result.add(persons.get(uuid));
+		}
+		if (result.size() > 1) {
+			Map<Person, Double> similarities = new HashMap<>();
+			result.sort(Comparator.comparingDouble((Person p) -> similarities.computeIfAbsent(p, k -> getSimilarity(fullName, k))).reversed());
+		}
+		return result;
+	}
+
+	private void unindex(Person person) {
+		for (String email : person.getEmails()) {
+			remove(byEmail, StringUtils.toRootLowerCase(email), person.getUuid());
+		}
+		for (String name : getNames(person)) {
+			remove(byName, normalize(name), person.getUuid());
+		}
+		blocks.remove(person.getUuid(), getNames(person));
+	}
+
+	private static void remove(Map<String, Set<String>> map, String key, String uuid) {
+		Set<String> uuids = map.get(key);
+		if (uuids != null) {
+			uuids.remove(uuid);
+			if (uuids.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
+	private static List<String> getNames(Person person) {
+		List<String> names = new ArrayList<>(person.getNameVariants());
+		names.add(person.getFullName());
+		return names;
+	}
+
+	/**
+	 * Normalizes the given name, ignoring case, accents, punctuation and spacing
+	 *
+	 * @param name
+	 * @return
+	 */
+	static String normalize(String name) {
+		return StringUtils.normalizeSpace(NON_WORD.matcher(StringUtils.stripAccents(StringUtils.toRootLowerCase(name))).replaceAll(" "));
+	}
+}
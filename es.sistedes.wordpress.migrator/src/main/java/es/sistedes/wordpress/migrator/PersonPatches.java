@@ -0,0 +1,234 @@
+package es.sistedes.wordpress.migrator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import es.sistedes.wordpress.migrator.dsmodel.Person;
+
+/**
+ * Accumulates the JSON Patch operations of the {@link Person}s updated during
+ * the migration, so that each person is patched once (per flush) instead of
+ * every time one of its authors is found.
+ *
+ * Operations are applied to a local copy of the person as soon as they are
+ * added (see {@link #apply(Person, List)}), and the original state of the
+ * person in DSpace is kept, so that the operations to send are the net
+ * differences between both states (see {@link #getPatches()}): repeated
+ * operations are merged, and operations that cancel each other out are
+ * dropped. Persons are kept in the queue until their patch has been sent (see
+ * {@link #sent(String)}).
+ *
+ * This class is not thread-safe: callers must hold the lock used to update
+ * persons.
+ *
+ * @author agomez
+ *
+ */
+final class PersonPatches {
+
+	private static final String GIVEN_NAME_PATH = "/metadata/person.givenName";
+	private static final String FAMILY_NAME_PATH = "/metadata/person.familyName";
+	private static final String VARIANT_PATH = "/metadata/person.name.variant";
+	private static final String AFFILIATION_PATH = "/metadata/person.affiliation.name";
+	private static final String EMAIL_PATH = "/metadata/person.email";
+
+	private final Map<String, Person> originals = new LinkedHashMap<>();
+	private final Map<String, Person> persons = new LinkedHashMap<>();
+	private final long interval;
+	private long oldest;
+	private long operations;
+	private long sentOperations;
+	private long patches;
+
+	/**
+	 * @param interval Time (in ms) after which the pending operations should be
+	 *                 flushed (see {@link #isDue()})
+	 */
+	public PersonPatches(long interval) {
+		this.interval = interval;
+	}
+
+	/**
+	 * Returns the pending version of the given {@link Person} (i.e., with the
+	 * operations not sent yet applied), or the given person if it has no
+	 * pending operations
+	 *
+	 * @param person
+	 * @return
+	 */
+	public Person getPending(Person person) {
+		return persons.getOrDefault(person.getUuid(), person);
+	}
+
+	/**
+	 * Applies the given operations to a copy of the pending version of the given
+	 * {@link Person} (see {@link #getPending(Person)}), which is returned
+	 *
+	 * @param person
+	 * @param objs
+	 * @return
+	 */
+	public Person apply(Person person, List<JsonObject> objs) {
+		if (persons.isEmpty()) {
+			oldest = System.nanoTime();
+		}
+		Person result = copy(getPending(person));
+		originals.putIfAbsent(person.getUuid(), copy(person));
+		for (JsonObject obj : objs) {
+			apply(result, obj.get("op").getAsString(), obj.get("path").getAsString(), obj.get("value").getAsString());
+		}
+		persons.put(result.getUuid(), result);
+		operations += objs.size();
+		return result;
+	}
+
+	/**
+	 * Returns whether there are pending operations
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return persons.isEmpty();
+	}
+
+	/**
+	 * Returns whether the oldest pending operation has been kept longer than the
+	 * flush interval
+	 *
+	 * @return
+	 */
+	public boolean isDue() {
+		return !isEmpty() && System.nanoTime() - oldest >= interval * 1_000_000L;
+	}
+
+	/**
+	 * Returns the net operations to send for each (UUID of a) {@link Person}.
+	 * Persons whose operations cancel each other out are forgotten, the rest
+	 * are kept until their patch is sent (see {@link #sent(String)})
+	 *
+	 * @return
+	 */
+	public Map<String, List<JsonObject>> getPatches() {
+		Map<String, List<JsonObject>> result = new LinkedHashMap<>();
+		for (Person person : new ArrayList<>(persons.values())) {
+			List<JsonObject> objs = diff(originals.get(person.getUuid()), person);
+			if (objs.isEmpty()) {
+				forget(person.getUuid());
+			} else {
+				result.put(person.getUuid(), objs);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Records that the given patch (see {@link #getPatches()}) of the
+	 * {@link Person} with the given UUID has been sent, and forgets it
+	 *
+	 * @param uuid
+	 * @param objs
+	 */
+	public void sent(String uuid, List<JsonObject> objs) {
+		forget(uuid);
+		sentOperations += objs.size();
+		patches++;
+	}
+
+	private void forget(String uuid) {
+		originals.remove(uuid);
+		persons.remove(uuid);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d update operations coalesced into %d patches (%d operations)", operations, patches, sentOperations);
+	}
+
+	private static void apply(Person person, String op, String path, String value) {
+		switch (path) {
+		case GIVEN_NAME_PATH:
+			person.setGivenName(value);
+			break;
+		case FAMILY_NAME_PATH:
+			person.setFamilyName(value);
+			break;
+		case VARIANT_PATH:
+			person.setNameVariants(apply(person.getNameVariants(), op, value, Function.identity()));
+			break;
+		case AFFILIATION_PATH:
+			person.setAffiliations(apply(person.getAffiliations(), op, value, Function.identity()));
+			break;
+		case EMAIL_PATH:
+			// E-mails are lowercased by the Person
+			person.setEmails(apply(person.getEmails(), op, value, StringUtils::toRootLowerCase));
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported path: " + path);
+		}
+	}
+
+	private static List<String> apply(List<String> values, String op, String value, Function<String, String> normalizer) {
+		List<String> result = new ArrayList<>(values);
+		if ("remove".equals(op)) {
+			result.removeIf(v -> normalizer.apply(v).equals(normalizer.apply(value)));
+		} else if (result.stream().noneMatch(v -> normalizer.apply(v).equals(normalizer.apply(value)))) {
+			result.add(value);
+		}
+		return result;
+	}
+
+	private static List<JsonObject> diff(Person original, Person person) {
+		List<JsonObject> objs = new ArrayList<>();
+		diff(objs, GIVEN_NAME_PATH, original.getGivenName(), person.getGivenName());
+		diff(objs, FAMILY_NAME_PATH, original.getFamilyName(), person.getFamilyName());
+		diff(objs, VARIANT_PATH, original.getNameVariants(), person.getNameVariants(), Function.identity());
+		diff(objs, AFFILIATION_PATH, original.getAffiliations(), person.getAffiliations(), Function.identity());
+		diff(objs, EMAIL_PATH, original.getEmails(), person.getEmails(), StringUtils::toRootLowerCase);
+		return objs;
+	}
+
+	private static void diff(List<JsonObject> objs, String path, String original, String value) {
+		if (!Objects.equals(original, value)) {
+			objs.add(createOperation("replace", path, value));
+		}
+	}
+
+	private static void diff(List<JsonObject> objs, String path, List<String> originals, List<String> values, Function<String, String> normalizer) {
+		// A remove without an index clears all the values of the field, so values
+		// are removed by their index in DSpace, the last ones first so that the
+		// indexes of the others do not change, and before adding the new values
+		for (int i = originals.size() - 1; i >= 0; i--) {
+			if (!contains(values, originals.get(i), normalizer)) {
+				objs.add(createOperation("remove", path + "/" + i, originals.get(i)));
+			}
+		}
+		values.stream().filter(value -> !contains(originals, value, normalizer)).distinct()
+				.forEach(value -> objs.add(createOperation("add", path, value)));
+	}
+
+	private static boolean contains(List<String> values, String value, Function<String, String> normalizer) {
+		return values.stream().anyMatch(other -> normalizer.apply(other).equals(normalizer.apply(value)));
+	}
+
+	private static JsonObject createOperation(String op, String path, String value) {
+		JsonObject obj = new JsonObject();
+		obj.addProperty("op", op);
+		obj.addProperty("path", path);
+		obj.addProperty("value", value);
+		return obj;
+	}
+
+	private static Person copy(Person person) {
+		Gson gson = new Gson();
+		return gson.fromJson(gson.toJson(person), Person.class);
+	}
+}
@@ -0,0 +1,164 @@
+package es.sistedes.wordpress.migrator;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host token bucket rate limiter. Each host gets its own bucket that is
+ * refilled at the configured rate (in requests per second) up to the
+ * configured burst.
+ *
+ * The rate of a host is adapted to how it behaves: it is halved (and the
+ * bucket paused for the time requested in the <code>Retry-After</code> header,
+ * if any) when the host answers with a <code>429</code> or <code>503</code>,
+ * it is slightly reduced when responses are slow, and it is recovered
+ * additively after each fast successful response.
+ *
+ * @author agomez
+ *
+ */
+public final class RateLimiter {
+
+	// Rate used as the starting point to back off from unlimited hosts
+	private static final double UNLIMITED_BACKOFF_RATE = 10d;
+	private static final double MIN_RATE = 0.1d;
+	private static final long SLOW_RESPONSE_NANOS = TimeUnit.SECONDS.toNanos(5);
+	private static final long DEFAULT_PAUSE_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+	private final double maxRate;
+	private final int burst;
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong waits = new AtomicLong();
+	private final AtomicLong throttledNanos = new AtomicLong();
+	private final AtomicLong backoffs = new AtomicLong();
+
+	private class Bucket {
+		private double rate = maxRate;
+		private double tokens = burst;
+		private long last = System.nanoTime();
+		private long pausedUntil = last;
+
+		/**
+		 * Takes a token, returning how long (in ns) the caller has to wait for it
+		 */
+		private synchronized long reserve() {
+			long now = System.nanoTime();
+			if (Double.isInfinite(rate)) {
+				return Math.max(0, pausedUntil - now);
+			}
+			tokens = Math.min(burst, tokens + (now - last) / 1e9d * rate);
+			last = now;
+			tokens -= 1;
+			long wait = tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9d);
+			return Math.max(wait, pausedUntil - now);
+		}
+
+		private synchronized void backoff(long pauseMillis) {
+			rate = Math.max(MIN_RATE, (Double.isInfinite(rate) ? UNLIMITED_BACKOFF_RATE : rate) / 2);
+			tokens = Math.min(tokens, 0);
+			pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+		}
+
+		private synchronized void slowdown() {
+			rate = Math.max(MIN_RATE, (Double.isInfinite(rate) ? UNLIMITED_BACKOFF_RATE : rate) * 0.75d);
+		}
+
+		private synchronized void recover() {
+			if (rate < maxRate) {
+				double step = Double.isInfinite(maxRate) ? 1d : maxRate / 10;
+				rate = rate + step;
+				if (rate >= maxRate || (Double.isInfinite(maxRate) && rate >= UNLIMITED_BACKOFF_RATE * 5)) {
+					rate = maxRate;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a new {@link RateLimiter}
+	 *
+	 * @param rate  Maximum number of requests per second per host, zero or
+	 *              negative values mean no limit
+	 * @param burst Maximum number of requests per host that can be sent at once
+	 *              after an idle period
+	 */
+	public RateLimiter(double rate, int burst) {
+		this.maxRate = rate > 0 ? rate : Double.POSITIVE_INFINITY;
+		this.burst = Math.max(1, burst);
+	}
+
+	/**
+	 * Blocks until a request can be sent to the given host
+	 *
+	 * @param host
+	 * @throws InterruptedException
+	 */
+	public void acquire(String host) throws InterruptedException {
+		requests.incrementAndGet();
+		long wait = getBucket(host).reserve();
+		if (wait > 0) {
+			waits.incrementAndGet();
+			throttledNanos.addAndGet(wait);
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * Informs that the given host is overloaded (e.g., it answered with a
+	 * <code>429</code> or a <code>503</code> status code)
+	 *
+	 * @param host
+	 * @param retryAfterMillis Time requested by the server before retrying, or a
+	 *                         negative value if unknown
+	 */
+	public void backoff(String host, long retryAfterMillis) {
+		backoffs.incrementAndGet();
+		getBucket(host).backoff(retryAfterMillis >= 0 ? retryAfterMillis : DEFAULT_PAUSE_MILLIS);
+	}
+
+	/**
+	 * Informs that the given host answered a request after
+	 * <code>elapsedNanos</code>
+	 *
+	 * @param host
+	 * @param elapsedNanos
+	 */
+	public void record(String host, long elapsedNanos) {
+		if (elapsedNanos > SLOW_RESPONSE_NANOS) {
+			getBucket(host).slowdown();
+		} else {
+			getBucket(host).recover();
+		}
+	}
+
+	private Bucket getBucket(String host) {
+		return buckets.computeIfAbsent(host, h -> new Bucket());
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getWaits() {
+		return waits.get();
+	}
+
+	public long getThrottledMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(throttledNanos.get());
+	}
+
+	public long getBackoffs() {
+		return backoffs.get();
+	}
+
+	@Override
+	public String toString() {
+		return MessageFormat.format("{0} requests, {1} throttled ({2,number,#.#} s waiting), {3} backoffs",
+				getRequests(), getWaits(), getThrottledMillis() / 1000d, getBackoffs());
+	}
+}
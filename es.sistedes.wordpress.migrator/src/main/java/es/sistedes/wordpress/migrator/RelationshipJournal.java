@@ -0,0 +1,187 @@
+package es.sistedes.wordpress.migrator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Queue of the author relationships to create in DSpace, backed by a journal
+ * file. Relationships are queued while the publications are created, and are
+ * created later on, in a separate phase (see {@link #drain()}). Each queued
+ * and each created relationship is appended to the journal, so that the
+ * relationships that were not created (e.g., because the migration was
+ * interrupted) can be replayed afterwards (see {@link #load(Predicate)}).
+ * Since DSpace assigns the place of a relationship from its creation order,
+ * the relationships of a publication are always replayed as a whole.
+ *
+ * @author agomez
+ *
+ */
+final class RelationshipJournal implements Closeable {
+
+	private static final String QUEUED = "Q";
+	private static final String CREATED = "C";
+
+	/**
+	 * Relationship of type {@link #type} between the {@link #left} item (i.e.,
+	 * the publication) and the {@link #right} item (i.e., the author). The
+	 * {@link #place} is the ordinal of the author in the publication, and the
+	 * {@link #label} is the Sistedes identifier of the publication.
+	 */
+	static final class Relationship {
+		final int type;
+		final String left;
+		final String right;
+		final int place;
+		final String label;
+
+		Relationship(int type, String left, String right, int place, String label) {
+			this.type = type;
+			this.left = left;
+			this.right = right;
+			this.place = place;
+			this.label = label;
+		}
+
+		private String getKey() {
+			return String.join("\t", String.valueOf(type), left, right);
+		}
+
+		@Override
+		public String toString() {
+			return label + " (" + place + ")";
+		}
+	}
+
+	private final File file;
+	private final List<Relationship> queue = new ArrayList<>();
+	private final Set<String> replayed = new HashSet<>();
+	private BufferedWriter writer;
+
+	public RelationshipJournal(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Queues the given {@link Relationship}
+	 *
+	 * @param relationship
+	 * @throws IOException
+	 */
+	public synchronized void add(Relationship relationship) throws IOException {
+		write(QUEUED, relationship.getKey(), String.valueOf(relationship.place), relationship.label);
+		queue.add(relationship);
+	}
+
+	/**
+	 * Records that the given {@link Relationship} has been created
+	 *
+	 * @param relationship
+	 * @throws IOException
+	 */
+	public synchronized void created(Relationship relationship) throws IOException {
+		write(CREATED, relationship.getKey());
+	}
+
+	/**
+	 * Returns the queued {@link Relationship}s grouped by publication (in the
+	 * order they were queued) and sorted by place, and empties the queue
+	 *
+	 * @return
+	 */
+	public synchronized Map<String, List<Relationship>> drain() {
+		Map<String, List<Relationship>> result = new LinkedHashMap<>();
+		for (Relationship relationship : queue) {
+			result.computeIfAbsent(relationship.left, k -> new ArrayList<>()).add(relationship);
+		}
+		result.values().forEach(relationships -> relationships.sort(Comparator.comparingInt(r -> r.place)));
+		queue.clear();
+		return result;
+	}
+
+	/**
+	 * Returns whether the {@link Relationship}s of the given publication have
+	 * been queued by {@link #load(Predicate)}, in which case the relationships
+	 * of the publication already in DSpace must be deleted before creating them
+	 *
+	 * @param left
+	 * @return
+	 */
+	public synchronized boolean isReplayed(String left) {
+		return replayed.contains(left);
+	}
+
+	/**
+	 * Queues all the {@link Relationship}s of the publications of the journal
+	 * with some relationship not created yet, and whose label matches the given
+	 * filter
+	 *
+	 * @param filter
+	 * @return The number of queued {@link Relationship}s
+	 * @throws IOException
+	 */
+	public synchronized int load(Predicate<String> filter) throws IOException {
+		if (!file.exists()) {
+			return 0;
+		}
+		Map<String, Relationship> pending = new LinkedHashMap<>();
+		Set<String> created = new HashSet<>();
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length == 6 && QUEUED.equals(fields[0])) {
+					Relationship relationship = new Relationship(Integer.parseInt(fields[1]), fields[2], fields[3], Integer.parseInt(fields[4]), fields[5]);
+					pending.put(relationship.getKey(), relationship);
+				} else if (fields.length == 4 && CREATED.equals(fields[0])) {
+					created.add(String.join("\t", fields[1], fields[2], fields[3]));
+				}
+			}
+		}
+		Set<String> incomplete = new HashSet<>();
+		for (Relationship relationship : pending.values()) {
+			if (!created.contains(relationship.getKey())) {
+				incomplete.add(relationship.left);
+			}
+		}
+		int count = 0;
+		for (Relationship relationship : pending.values()) {
+			if (incomplete.contains(relationship.left) && filter.test(relationship.label)) {
+				queue.add(relationship);
+				replayed.add(relationship.left);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	private void write(String... fields) throws IOException {
+		if (writer == null) {
+			writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		writer.write(String.join("\t", fields));
+		writer.newLine();
+		writer.flush();
+	}
+}
@@ -0,0 +1,232 @@
+package es.sistedes.wordpress.migrator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * On-disk cache of the responses of the legacy Wordpress site. Each URL is
+ * stored in the {@link #CACHE_DIR} directory as two files named after the
+ * SHA-256 of the URL: the response body, and a <code>.properties</code> file
+ * with the validators (<code>ETag</code> and <code>Last-Modified</code>), the
+ * Wordpress paging headers and the time when the response was fetched.
+ *
+ * Both files are written to temporary files and moved into place, so that
+ * concurrent readers never see partial entries. When a response is stored, the
+ * old metadata is removed before the new body is moved, and the new metadata
+ * is moved last: since entries without metadata are not served, a crash in
+ * between can only lose the entry, never pair a body with the wrong headers.
+ *
+ * @author agomez
+ *
+ */
+public final class ResponseCache {
+
+	private static final String CACHE_DIR = "wpcache";
+
+	private static final String URL = "url";
+	private static final String FETCHED = "fetched";
+	private static final String ETAG = "ETag";
+	private static final String LAST_MODIFIED = "Last-Modified";
+	private static final String[] STORED_HEADERS = { ETAG, LAST_MODIFIED, "X-WP-Total", "X-WP-TotalPages" };
+
+	/**
+	 * A cached response
+	 *
+	 * @author agomez
+	 *
+	 */
+	public static class Entry {
+		private final File body;
+		private final Properties meta;
+
+		private Entry(File body, Properties meta) {
+			this.body = body;
+			this.meta = meta;
+		}
+
+		public byte[] read() throws IOException {
+			return FileUtils.readFileToByteArray(body);
+		}
+
+		public long getFetched() {
+			return Long.parseLong(meta.getProperty(FETCHED, "0"));
+		}
+
+		public String getHeader(String name) {
+			return meta.getProperty(name);
+		}
+	}
+
+	private final File dir;
+	private final long ttl;
+	private final boolean offline;
+
+	/**
+	 * Creates a new {@link ResponseCache}
+	 *
+	 * @param ttl     Time (in s) during which cached responses are served without
+	 *                revalidating them, negative values mean forever
+	 * @param offline Whether cached responses must be served even if they are
+	 *                expired, and missing responses must not be fetched
+	 */
+	public ResponseCache(long ttl, boolean offline) {
+		this.dir = new File(CACHE_DIR);
+		this.ttl = ttl;
+		this.offline = offline;
+	}
+
+	public boolean isOffline() {
+		return offline;
+	}
+
+	/**
+	 * Returns the cached {@link Entry} for the given {@link URL}, or
+	 * <code>null</code> if it is not cached
+	 *
+	 * @param url
+	 * @return
+	 * @throws IOException
+	 */
+	public Entry get(URL url) throws IOException {
+		File body = getBodyFile(url);
+		File metaFile = getMetaFile(url);
+		if (!body.exists() || !metaFile.exists()) {
+			return null;
+		}
+		Properties meta = new Properties();
+		try (InputStream in = new FileInputStream(metaFile)) {
+			meta.load(in);
+		}
+		return new Entry(body, meta);
+	}
+
+	/**
+	 * Returns whether the given {@link Entry} can be served without revalidating
+	 * it with the server
+	 *
+	 * @param entry
+	 * @return
+	 */
+	public boolean isFresh(Entry entry) {
+		return offline || ttl < 0 || System.currentTimeMillis() - entry.getFetched() <= ttl * 1000;
+	}
+
+	/**
+	 * Adds the validators of the given {@link Entry} to the (not yet connected)
+	 * {@link URLConnection} so that the server can answer with a
+	 * <code>304 Not Modified</code>
+	 *
+	 * @param entry
+	 * @param connection
+	 */
+	public void addValidators(Entry entry, URLConnection connection) {
+		if (entry.getHeader(ETAG) != null) {
+			connection.setRequestProperty("If-None-Match", entry.getHeader(ETAG));
+		}
+		if (entry.getHeader(LAST_MODIFIED) != null) {
+			connection.setRequestProperty("If-Modified-Since", entry.getHeader(LAST_MODIFIED));
+		}
+	}
+
+	/**
+	 * Marks the given {@link Entry} as just revalidated
+	 *
+	 * @param url
+	 * @param entry
+	 * @throws IOException
+	 */
+	public void touch(URL url, Entry entry) throws IOException {
+		entry.meta.setProperty(FETCHED, String.valueOf(System.currentTimeMillis()));
+		writeMeta(url, entry.meta);
+	}
+
+	/**
+	 * Stores the given response body, and the relevant headers of the
+	 * {@link URLConnection} it was read from
+	 *
+	 * @param url
+	 * @param body
+	 * @param connection
+	 * @throws IOException
+	 */
+	public void put(URL url, byte[] body, URLConnection connection) throws IOException {
+		Properties meta = new Properties();
+		meta.setProperty(URL, url.toString());
+		meta.setProperty(FETCHED, String.valueOf(System.currentTimeMillis()));
+		for (String header : STORED_HEADERS) {
+			if (connection.getHeaderField(header) != null) {
+				meta.setProperty(header, connection.getHeaderField(header));
+			}
+		}
+		File bodyFile = getBodyFile(url);
+		File bodyTmp = getTempFile(bodyFile);
+		File metaFile = getMetaFile(url);
+		File metaTmp = getTempFile(metaFile);
+		try {
+			FileUtils.writeByteArrayToFile(bodyTmp, body);
+			storeMeta(metaTmp, meta);
+			Files.deleteIfExists(metaFile.toPath());
+			Files.move(bodyTmp.toPath(), bodyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.move(metaTmp.toPath(), metaFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			FileUtils.deleteQuietly(bodyTmp);
+			FileUtils.deleteQuietly(metaTmp);
+		}
+	}
+
+	private void writeMeta(URL url, Properties meta) throws IOException {
+		File metaFile = getMetaFile(url);
+		File tmp = getTempFile(metaFile);
+		try {
+			storeMeta(tmp, meta);
+			Files.move(tmp.toPath(), metaFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			FileUtils.deleteQuietly(tmp);
+		}
+	}
+
+	private static void storeMeta(File file, Properties meta) throws IOException {
+		FileUtils.forceMkdirParent(file);
+		try (OutputStream out = new FileOutputStream(file)) {
+			meta.store(out, null);
+		}
+	}
+
+	private static File getTempFile(File file) {
+		return new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+	}
+
+	private File getBodyFile(URL url) {
+		String key = getKey(url);
+		return new File(new File(dir, key.substring(0, 2)), key);
+	}
+
+	private File getMetaFile(URL url) {
+		String key = getKey(url);
+		return new File(new File(dir, key.substring(0, 2)), key + ".properties");
+	}
+
+	private static String getKey(URL url) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.toString().getBytes(StandardCharsets.UTF_8));
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
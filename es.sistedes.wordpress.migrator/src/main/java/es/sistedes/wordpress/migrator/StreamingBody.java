@@ -0,0 +1,127 @@
+package es.sistedes.wordpress.migrator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+
+import org.apache.hc.client5.http.entity.mime.AbstractContentBody;
+import org.apache.hc.core5.http.ContentType;
+
+/**
+ * Multipart body that streams the contents of a (source) download straight
+ * into the upload request, without staging them on disk. Only a fixed-size
+ * buffer is kept in memory, and the MD5 checksum and size of the transferred
+ * contents are computed on the fly, so that they can be checked against the
+ * ones reported by the server once the upload completes.
+ *
+ * The length of the download must be known in advance (see
+ * {@link #isStreamable(URLConnection)}), and the body can only be written
+ * once: if the upload needs to be retried, the contents must be staged on disk.
+ *
+ * @author agomez
+ *
+ */
+class StreamingBody extends AbstractContentBody {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final URLConnection connection;
+	private final String filename;
+	private final long length;
+	private final MessageDigest digest;
+	private long transferred;
+	private boolean written;
+
+	public StreamingBody(URLConnection connection, ContentType contentType, String filename) {
+		super(contentType);
+		if (connection.getContentLengthLong() < 0) {
+			throw new IllegalArgumentException(MessageFormat.format("Unknown length of ''{0}''", connection.getURL()));
+		}
+		this.connection = connection;
+		this.filename = filename;
+		this.length = connection.getContentLengthLong();
+		try {
+			this.digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns whether the contents of the given {@link URLConnection} can be
+	 * streamed, i.e., whether they have been successfully retrieved and their
+	 * length is known
+	 *
+	 * @param connection
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isStreamable(URLConnection connection) throws IOException {
+		if (connection instanceof HttpURLConnection && ((HttpURLConnection) connection).getResponseCode() != HttpURLConnection.HTTP_OK) {
+			return false;
+		}
+		return connection.getContentLengthLong() >= 0;
+	}
+
+	@Override
+	public String getFilename() {
+		return filename;
+	}
+
+	@Override
+	public long getContentLength() {
+		return length;
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		if (written) {
+			throw new IOException(MessageFormat.format("''{0}'' has already been streamed", connection.getURL()));
+		}
+		written = true;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream in = connection.getInputStream()) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				if (transferred + read > length) {
+					throw new IOException(MessageFormat.format("''{0}'' is longer than announced ({1} bytes)", connection.getURL(), length));
+				}
+				digest.update(buffer, 0, read);
+				out.write(buffer, 0, read);
+				transferred += read;
+			}
+		}
+		if (transferred != length) {
+			throw new IOException(MessageFormat.format("Truncated download of ''{0}'' ({1} of {2} bytes)", connection.getURL(), transferred, length));
+		}
+	}
+
+	/**
+	 * Returns the number of bytes streamed so far
+	 *
+	 * @return
+	 */
+	public long getTransferred() {
+		return transferred;
+	}
+
+	/**
+	 * Returns the MD5 checksum (in hexadecimal) of the streamed contents, only
+	 * meaningful once they have been completely written
+	 *
+	 * @return
+	 */
+	public String getChecksum() {
+		try {
+			return String.format("%032x", new BigInteger(1, ((MessageDigest) digest.clone()).digest()));
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
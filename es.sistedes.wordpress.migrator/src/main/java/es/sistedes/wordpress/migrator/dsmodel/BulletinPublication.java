@@ -1,7 +1,6 @@
 package es.sistedes.wordpress.migrator.dsmodel;
 
 import java.io.File;
-import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.time.Instant;
@@ -11,7 +10,6 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,9 +29,13 @@ public class BulletinPublication extends Publication {
 
 	public static BulletinPublication from(Collection collection, Bulletin bulletin) {
 		File file = getPdfFile(bulletin.getHandle());
+		if (file != null) {
+			// Cached or not, the file must be kept until the publication is uploaded
+			PdfStore.pin(file);
+		}
 		try {
 			if (file != null && !file.exists()) {
-				FileUtils.copyInputStreamToFile((InputStream) new URL(bulletin.getDocumentUrl()).getContent(), file);
+				PdfPrefetcher.fetch(new URL(bulletin.getDocumentUrl()), file);
 			}
 		} catch (Exception e) {
 			LOGGER.error("Unable to retrieve PDF file for "  + bulletin.getLink());
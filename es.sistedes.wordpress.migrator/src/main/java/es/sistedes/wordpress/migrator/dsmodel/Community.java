@@ -17,8 +17,6 @@ import es.sistedes.wordpress.migrator.wpmodel.Edition;
 
 public class Community extends DSpaceEntity {
 
-	private static final String BIBTEX_TAG = "<p>Ver la referencia en formato <a href=\"#\"  class=\"citaBibtex\">Bibtex</a></p>";
-	
 	public static Community from(Site site, DocumentsLibrary library) {
 		return new Community(library.getLibraryName(), library.getDescription(), library.getDescription(),
 				site.getBaseUri().replaceAll("https?://hdl.handle.net/", "") + "/SISTEDES", Calendar.getInstance().getTime());
@@ -38,13 +36,9 @@ public class Community extends DSpaceEntity {
 	}
 	
 	public static Community from(Community community, Edition edition) {
+		// The Bibtex reference has already been removed from the description
 		String description = edition.getDescription();
 		String _abstract = null;
-		if (edition.getDescription().contains(BIBTEX_TAG)) {
-			description = description.substring(0, description.indexOf(BIBTEX_TAG)).trim();
-		} else {
-			description = edition.getDescription();
-		}
 		try {
 			String paragraph = description.substring(description.indexOf("<p>") + 3, description.indexOf("</p>"));
 			_abstract = paragraph.replaceAll("<[^>]+/?>", "");
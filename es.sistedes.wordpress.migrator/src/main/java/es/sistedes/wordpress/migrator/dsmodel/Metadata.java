@@ -21,9 +21,10 @@ public class Metadata {
 													.set(FlexmarkHtmlConverter.TYPOGRAPHIC_SMARTS, false)
 													.set(FlexmarkHtmlConverter.SKIP_CHAR_ESCAPE, true);
 	
-	public volatile static DateFormat DATE_FORMAT_SIMPLE_W_HOUR = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-	public volatile static DateFormat DATE_FORMAT_SIMPLE = new SimpleDateFormat("yyyy-MM-dd");
-	public volatile static DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:00'Z'");
+	// SimpleDateFormat is not thread-safe, and publications may be built concurrently
+	public final static ThreadLocal<DateFormat> DATE_FORMAT_SIMPLE_W_HOUR = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm"));
+	public final static ThreadLocal<DateFormat> DATE_FORMAT_SIMPLE = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
+	public final static ThreadLocal<DateFormat> DATE_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:00'Z'"));
 	
 	// BEGIN: JSON fields
 	@SerializedName("dc.title")
@@ -256,15 +257,15 @@ public class Metadata {
 	public Date getDate() {
 		if (!datesAvailable.isEmpty()) {
 			return datesAvailable.stream().findFirst().map(d ->  {
-				try { return DATE_FORMAT.parse(d.getValue()); } catch (ParseException e) { throw new RuntimeException(e); }
+				try { return DATE_FORMAT.get().parse(d.getValue()); } catch (ParseException e) { throw new RuntimeException(e); }
 			}).orElseThrow();
 		} else if (!datesIssued.isEmpty()) {
 			return datesIssued.stream().findFirst().map(d ->  {
 				try {
-					return DATE_FORMAT_SIMPLE_W_HOUR.parse(d.getValue());
+					return DATE_FORMAT_SIMPLE_W_HOUR.get().parse(d.getValue());
 				} catch (ParseException e1) {
 					try {
-						return DATE_FORMAT_SIMPLE.parse(d.getValue());
+						return DATE_FORMAT_SIMPLE.get().parse(d.getValue());
 					} catch (ParseException e2) {
 						throw new RuntimeException(e2);
 					}
@@ -281,12 +282,12 @@ public class Metadata {
 		this.datesAvailable.clear();
 		this.datesIssued.clear();
 		this.datesAccessioned.clear();
-		this.datesAvailable.add(new MetadataEntry(DATE_FORMAT.format(date)));
-		this.datesAccessioned.add(new MetadataEntry(DATE_FORMAT.format(date)));
+		this.datesAvailable.add(new MetadataEntry(DATE_FORMAT.get().format(date)));
+		this.datesAccessioned.add(new MetadataEntry(DATE_FORMAT.get().format(date)));
 		if (date.getHours() == 0 && date.getMinutes() == 0) {
-			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE.format(date)));
+			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE.get().format(date)));
 		} else {
-			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE_W_HOUR.format(date)));
+			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE_W_HOUR.get().format(date)));
 		}
 	}
 
@@ -295,9 +296,9 @@ public class Metadata {
 		if (date == null) return;
 		this.datesIssued.clear();
 		if (date.getHours() == 0 && date.getMinutes() == 0) {
-			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE.format(date)));
+			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE.get().format(date)));
 		} else {
-			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE_W_HOUR.format(date)));
+			this.datesIssued.add(new MetadataEntry(DATE_FORMAT_SIMPLE_W_HOUR.get().format(date)));
 		}
 	}
 
@@ -0,0 +1,293 @@
+package es.sistedes.wordpress.migrator.dsmodel;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.sistedes.wordpress.migrator.DelayedStreamOpener;
+import es.sistedes.wordpress.migrator.wpmodel.Article;
+
+/**
+ * Downloads the PDF files of the papers into the PDF cache. Downloads can be
+ * started in background (see {@link #prefetch(List)}) so that the files are
+ * already available when the publications are created.
+ *
+ * Files are downloaded into a <code>.part</code> file that is moved into place
+ * once its size matches the <code>Content-Length</code> announced by the
+ * server, so that incomplete files are never mistaken for complete ones.
+ * Interrupted downloads are resumed using <code>Range</code> requests.
+ *
+ * @author agomez
+ *
+ */
+public final class PdfPrefetcher {
+
+	private transient static final Logger LOGGER = LoggerFactory.getLogger(PdfPrefetcher.class);
+
+	private static final int DEFAULT_PARALLELISM = 4;
+	private static final int MAX_ATTEMPTS = 5;
+	private static final String PART_EXTENSION = ".part";
+	private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-\\d+/(\\d+|\\*)");
+
+	private static int parallelism = DEFAULT_PARALLELISM;
+	private static ExecutorService executor;
+
+	private static final Map<File, Future<?>> downloads = new ConcurrentHashMap<>();
+
+	private PdfPrefetcher() {
+	}
+
+	/**
+	 * Sets the maximum number of PDF files downloaded in background (0 disables
+	 * prefetching)
+	 *
+	 * @param parallelism
+	 */
+	public static synchronized void setParallelism(int parallelism) {
+		shutdown();
+		PdfPrefetcher.parallelism = Math.max(0, parallelism);
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			final AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+				Thread thread = new Thread(runnable, "pdf-prefetcher-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the background downloads that have not started yet
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			for (Runnable pending : executor.shutdownNow()) {
+				((Future<?>) pending).cancel(false);
+				downloads.values().remove(pending);
+			}
+			executor = null;
+		}
+	}
+
+	/**
+	 * Starts downloading in background, in order, the PDF files of the given
+	 * {@link Article}s that are not in the PDF cache yet. All the files, cached
+	 * or not, are pinned in the {@link PdfStore} until they are released
+	 *
+	 * @param articles
+	 */
+	public static void prefetch(List<Article> articles) {
+		if (parallelism <= 0) {
+			return;
+		}
+		for (Article article : articles) {
+			File file = Publication.getPdfFile(article.getHandle());
+			if (file == null) {
+				continue;
+			}
+			// Cached files must also be kept until their publications are uploaded
+			PdfStore.pin(file);
+			if (file.exists()) {
+				continue;
+			}
+			try {
+				if (article.getDocumentUrl() != null) {
+					submit(new URL(article.getDocumentUrl()), null, file, true);
+				}
+			} catch (MalformedURLException | RuntimeException e) {
+				// Leave it to the synchronous download, which will report the error
+				LOGGER.debug(MessageFormat.format("[!PDF] Unable to prefetch the PDF file for ''{0}'': {1}", article.getLink(), e.getLocalizedMessage()));
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that the given {@link URL} has been downloaded into
+	 * <code>file</code>, either waiting for its background download or
+	 * downloading it right away. The file is pinned in the {@link PdfStore}
+	 * until it is released (see {@link PdfStore#release(File)})
+	 *
+	 * @param url
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void fetch(URL url, File file) throws IOException {
+		fetch(url, null, file);
+	}
+
+	/**
+	 * Same as {@link #fetch(URL, File)}, but the contents are read from the
+	 * given (already open, and not read yet) <code>connection</code> to
+	 * <code>url</code>, instead of opening a new one. The connection is closed
+	 * if it is not needed (e.g., because the file is already being downloaded)
+	 *
+	 * @param url
+	 * @param connection
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void fetch(URL url, URLConnection connection, File file) throws IOException {
+		PdfStore.pin(file);
+		if (file.exists()) {
+			disconnect(connection);
+			return;
+		}
+		try {
+			try {
+				submit(url, connection, file, false).get();
+			} catch (CancellationException e) {
+				// The background download was cancelled before starting
+				submit(url, null, file, false).get();
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Submits the download of <code>url</code> into <code>file</code>, unless it
+	 * is already in progress, in which case the running download is returned
+	 */
+	private static Future<?> submit(URL url, URLConnection connection, File file, boolean background) {
+		FutureTask<Void> task = new FutureTask<>(() -> {
+			try {
+				download(url, connection, file);
+			} finally {
+				downloads.remove(file);
+			}
+			return null;
+		});
+		Future<?> existing = downloads.putIfAbsent(file, task);
+		if (existing != null) {
+			disconnect(connection);
+			return existing;
+		}
+		// Prefetched files must be kept until their publications are uploaded
+		PdfStore.pin(file);
+		if (background) {
+			getExecutor().execute(task);
+		} else {
+			task.run();
+		}
+		return task;
+	}
+
+	private static void download(URL url, URLConnection connection, File file) throws IOException {
+		File part = new File(file.getPath() + PART_EXTENSION);
+		FileUtils.forceMkdirParent(part);
+		if (connection != null) {
+			// The connection starts at the beginning of the contents
+			FileUtils.deleteQuietly(part);
+		}
+		long start = System.nanoTime();
+		for (int attempt = 1; ; attempt++) {
+			try {
+				if (transfer(url, attempt == 1 ? connection : null, part)) {
+					Files.move(part.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					PdfStore.add(file);
+					LOGGER.debug(MessageFormat.format("[PDF] Downloaded ''{0}'' ({1} bytes in {2,number,#.##} s)", url, file.length(),
+							(System.nanoTime() - start) / 1e9d));
+					return;
+				}
+				if (attempt >= MAX_ATTEMPTS) {
+					throw new IOException(MessageFormat.format("Incomplete download of ''{0}'' after {1} attempts", url, attempt));
+				}
+			} catch (IOException e) {
+				if (attempt >= MAX_ATTEMPTS || e instanceof FileNotFoundException || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				LOGGER.warn(MessageFormat.format("[!PDF] Download of ''{0}'' failed ({1}), resuming...", url, e.getLocalizedMessage()));
+			}
+		}
+	}
+
+	/**
+	 * Appends the missing contents of <code>url</code> to <code>part</code>,
+	 * reading them from <code>connection</code> if it is not <code>null</code>
+	 *
+	 * @return Whether <code>part</code> is complete
+	 */
+	private static boolean transfer(URL url, URLConnection connection, File part) throws IOException {
+		long offset = part.length();
+		if (connection == null) {
+			connection = DelayedStreamOpener.download(url, offset);
+		}
+		long expected = -1;
+		boolean append = false;
+		if (connection instanceof HttpURLConnection) {
+			HttpURLConnection httpConnection = (HttpURLConnection) connection;
+			int code = httpConnection.getResponseCode();
+			if (code == HttpURLConnection.HTTP_PARTIAL) {
+				Matcher matcher = CONTENT_RANGE.matcher(String.valueOf(httpConnection.getHeaderField("Content-Range")));
+				if (matcher.matches() && Long.parseLong(matcher.group(1)) == offset) {
+					append = true;
+					expected = "*".equals(matcher.group(2)) ? -1 : Long.parseLong(matcher.group(2));
+				} else {
+					// Unexpected range, start over
+					httpConnection.disconnect();
+					FileUtils.deleteQuietly(part);
+					return false;
+				}
+			} else if (code == 416 /* Range Not Satisfiable */) {
+				httpConnection.disconnect();
+				FileUtils.deleteQuietly(part);
+				return false;
+			}
+		}
+		if (!append) {
+			expected = connection.getContentLengthLong();
+		}
+		try (InputStream in = connection.getInputStream(); OutputStream out = new FileOutputStream(part, append)) {
+			IOUtils.copyLarge(in, out);
+		}
+		if (expected >= 0 && part.length() > expected) {
+			// Corrupt partial download, start over
+			FileUtils.deleteQuietly(part);
+			return false;
+		}
+		return expected < 0 || part.length() == expected;
+	}
+
+	private static void disconnect(URLConnection connection) {
+		if (connection instanceof HttpURLConnection) {
+			((HttpURLConnection) connection).disconnect();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package es.sistedes.wordpress.migrator.dsmodel;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xhtmlrenderer.layout.SharedContext;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+/**
+ * Renders XHTML documents into PDF files in a dedicated pool of worker
+ * threads, so that rendering does not block the migration. Each worker reuses
+ * its own {@link ITextRenderer} (and thus, its fonts and shared context), which
+ * is not thread-safe but is much cheaper to reuse than to create.
+ *
+ * @author agomez
+ *
+ */
+final class PdfRenderer {
+
+	private transient static final Logger LOGGER = LoggerFactory.getLogger(PdfRenderer.class);
+
+	private static final String TMP_EXTENSION = ".tmp";
+
+	private static final ExecutorService executor;
+	static {
+		final AtomicInteger count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "pdf-renderer-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static final ThreadLocal<ITextRenderer> renderers = ThreadLocal.withInitial(() -> {
+		ITextRenderer renderer = new ITextRenderer();
+		SharedContext sharedContext = renderer.getSharedContext();
+		sharedContext.setPrint(true);
+		sharedContext.setInteractive(false);
+		return renderer;
+	});
+
+	private PdfRenderer() {
+	}
+
+	/**
+	 * Runs the given rendering task in the worker pool
+	 *
+	 * @param task
+	 * @return
+	 */
+	static <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	/**
+	 * Renders the given XHTML document into <code>file</code>. The PDF is written
+	 * into a temporary file first, so that <code>file</code> is never left
+	 * incomplete.
+	 *
+	 * @param xhtml
+	 * @param file
+	 * @throws IOException
+	 */
+	static void render(String xhtml, File file) throws IOException {
+		long start = System.nanoTime();
+		File tmp = new File(file.getPath() + TMP_EXTENSION);
+		FileUtils.forceMkdirParent(tmp);
+		try (OutputStream outputStream = new FileOutputStream(tmp)) {
+			ITextRenderer renderer = renderers.get();
+			renderer.setDocumentFromString(xhtml);
+			renderer.layout();
+			renderer.createPDF(outputStream);
+		} catch (IOException | RuntimeException e) {
+			// The renderer may be left in an inconsistent state
+			renderers.remove();
+			FileUtils.deleteQuietly(tmp);
+			throw e;
+		} catch (Exception e) {
+			renderers.remove();
+			FileUtils.deleteQuietly(tmp);
+			throw new IOException(e);
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		LOGGER.info(MessageFormat.format("[PDF] Rendered ''{0}'' ({1} bytes in {2,number,#.##} s)", file.getName(), file.length(),
+				(System.nanoTime() - start) / 1e9d));
+	}
+}
@@ -0,0 +1,369 @@
+package es.sistedes.wordpress.migrator.dsmodel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed store of the PDF files of the publications.
+ *
+ * PDF files are still found at their usual locations (i.e., in the
+ * {@link #PDF_CACHE_DIR} directory, or in its {@link #PAPERS_DIR} and
+ * {@link #ABSTRACTS_DIR} subdirectories, which are curated by hand), but each
+ * distinct content is also stored once in the {@link #OBJECTS_DIR} directory,
+ * named after its SHA-256, and the files with the same contents are hard
+ * links to it. The {@link #INDEX_FILE} keeps, for each file name, its hash,
+ * size, path and last access time, so that the directories are scanned (and
+ * new files hashed) only once, and lookups are a single in-memory probe.
+ *
+ * Optionally, the size of the store can be capped (see
+ * {@link #setMaxSize(long)}), in which case the least recently used
+ * downloaded files are evicted. Files in the curated directories are never
+ * evicted, and neither are the files pinned by the publications that have not
+ * been uploaded yet (see {@link #pin(File)} and {@link #release(File)}).
+ *
+ * @author agomez
+ *
+ */
+public final class PdfStore {
+
+	private transient static final Logger LOGGER = LoggerFactory.getLogger(PdfStore.class);
+
+	private static final String PDF_CACHE_DIR = "pdfcache";
+	private static final String PAPERS_DIR = "articulos";
+	private static final String ABSTRACTS_DIR = "resumenes";
+	private static final String OBJECTS_DIR = "objects";
+	private static final String INDEX_FILE = "index.tsv";
+	private static final String PDF_EXTENSION = ".pdf";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final class Entry {
+		private final String path;
+		private final String hash;
+		private final long size;
+		private final long modified;
+		private long accessed;
+
+		private Entry(String path, String hash, long size, long modified, long accessed) {
+			this.path = path;
+			this.hash = hash;
+			this.size = size;
+			this.modified = modified;
+			this.accessed = accessed;
+		}
+
+		private boolean isCurated() {
+			return path.contains("/");
+		}
+	}
+
+	private static final File root = new File(PDF_CACHE_DIR);
+	private static Map<String, Entry> index;
+	private static final Set<String> pinned = new HashSet<>();
+	private static long maxSize = -1;
+	private static boolean linksUnsupported;
+
+	private PdfStore() {
+	}
+
+	/**
+	 * Caps the total size (in bytes) of the distinct PDF files in the store,
+	 * negative values mean no limit
+	 *
+	 * @param maxSize
+	 */
+	public static synchronized void setMaxSize(long maxSize) {
+		PdfStore.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the PDF file of the given handle, which may not exist yet (in that
+	 * case, it is the file where the PDF should be downloaded)
+	 *
+	 * @param handle
+	 * @return
+	 */
+	public static synchronized File getFile(String handle) {
+		String name = getName(handle);
+		Entry entry = getIndex().get(name);
+		if (entry == null) {
+			return new File(root, name);
+		}
+		entry.accessed = System.currentTimeMillis();
+		return new File(root, entry.path);
+	}
+
+	/**
+	 * Returns whether the PDF file of the given handle is an extended abstract
+	 * (i.e., it has been placed in the {@link #ABSTRACTS_DIR} directory)
+	 *
+	 * @param handle
+	 * @return
+	 */
+	public static synchronized boolean isAbstract(String handle) {
+		Entry entry = getIndex().get(getName(handle));
+		return entry != null && entry.path.startsWith(ABSTRACTS_DIR + "/");
+	}
+
+	/**
+	 * Keeps the given file from being evicted until it is released (see
+	 * {@link #release(File)}), e.g., because it is being downloaded or it has
+	 * not been uploaded yet
+	 *
+	 * @param file
+	 */
+	public static synchronized void pin(File file) {
+		pinned.add(file.getName());
+	}
+
+	/**
+	 * Allows the given file to be evicted again (see {@link #pin(File)}),
+	 * evicting the least recently used files if the store is over its size
+	 *
+	 * @param file
+	 */
+	public static synchronized void release(File file) {
+		if (pinned.remove(file.getName()) && index != null) {
+			try {
+				if (evict()) {
+					writeIndex();
+				}
+			} catch (IOException e) {
+				LOGGER.warn("[!PDF] Unable to evict PDF files: " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+	/**
+	 * Adds the given (complete) file, which must be in the store directories, to
+	 * the store. The file is pinned (see {@link #pin(File)}) until it is
+	 * released
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void add(File file) throws IOException {
+		String hash = hash(file);
+		synchronized (PdfStore.class) {
+			pinned.add(file.getName());
+			getIndex();
+			put(file, hash);
+			if (evict()) {
+				writeIndex();
+			} else {
+				appendIndex(file.getName());
+			}
+		}
+	}
+
+	/**
+	 * Saves the index of the store, if it has been loaded
+	 */
+	public static synchronized void close() {
+		if (index != null) {
+			try {
+				writeIndex();
+			} catch (IOException e) {
+				LOGGER.warn("[!PDF] Unable to save the PDF store index: " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+	private static String getName(String handle) {
+		return handle.replaceAll("/", "-") + PDF_EXTENSION;
+	}
+
+	private static Map<String, Entry> getIndex() {
+		if (index == null) {
+			long start = System.nanoTime();
+			index = new HashMap<>();
+			try {
+				readIndex();
+				scan();
+				evict();
+				writeIndex();
+			} catch (IOException e) {
+				LOGGER.warn("[!PDF] Unable to load the PDF store: " + e.getLocalizedMessage());
+			}
+			LOGGER.info(MessageFormat.format("[PDF] Loaded {0} PDF files ({1} distinct) in {2,number,#.##} s", index.size(),
+					index.values().stream().map(e -> e.hash).distinct().count(), (System.nanoTime() - start) / 1e9d));
+		}
+		return index;
+	}
+
+	private static void readIndex() throws IOException {
+		File file = new File(root, INDEX_FILE);
+		if (!file.exists()) {
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length == 6) {
+					index.put(fields[0], new Entry(fields[1], fields[2], Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5])));
+				}
+			}
+		}
+	}
+
+	private static void appendIndex(String name) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(new File(root, INDEX_FILE).toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			writeEntry(writer, name, index.get(name));
+		}
+	}
+
+	private static void writeIndex() throws IOException {
+		File file = new File(root, INDEX_FILE);
+		File tmp = new File(root, INDEX_FILE + ".tmp");
+		FileUtils.forceMkdirParent(tmp);
+		try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Entry> e : index.entrySet()) {
+				writeEntry(writer, e.getKey(), e.getValue());
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void writeEntry(BufferedWriter writer, String name, Entry entry) throws IOException {
+		writer.write(String.join("\t", name, entry.path, entry.hash, String.valueOf(entry.size),
+				String.valueOf(entry.modified), String.valueOf(entry.accessed)));
+		writer.newLine();
+	}
+
+	/**
+	 * Indexes the files in the store directories, hashing only those that are
+	 * new or have changed since they were indexed. Later directories take
+	 * precedence, as in the legacy lookup order.
+	 */
+	private static void scan() throws IOException {
+		Map<String, Entry> previous = new HashMap<>(index);
+		index.clear();
+		for (File dir : new File[] { root, new File(root, ABSTRACTS_DIR), new File(root, PAPERS_DIR) }) {
+			File[] files = dir.listFiles((d, name) -> name.endsWith(PDF_EXTENSION));
+			if (files == null) {
+				continue;
+			}
+			for (File file : files) {
+				Entry entry = previous.get(file.getName());
+				if (entry != null && entry.path.equals(getPath(file)) && entry.size == file.length() && entry.modified == file.lastModified()) {
+					index.put(file.getName(), entry);
+				} else {
+					put(file, hash(file));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indexes <code>file</code>, making it a hard link to the object with the
+	 * same <code>hash</code> (or creating the object if it does not exist yet)
+	 */
+	private static void put(File file, String hash) throws IOException {
+		File object = getObject(hash);
+		if (!linksUnsupported) {
+			try {
+				if (!object.exists()) {
+					FileUtils.forceMkdirParent(object);
+					Files.createLink(object.toPath(), file.toPath());
+				} else if (!Files.isSameFile(object.toPath(), file.toPath())) {
+					Path tmp = new File(file.getPath() + ".tmp").toPath();
+					Files.deleteIfExists(tmp);
+					Files.createLink(tmp, object.toPath());
+					Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					LOGGER.debug(MessageFormat.format("[PDF] ''{0}'' is a duplicate of ''{1}''", file, object));
+				}
+			} catch (UnsupportedOperationException | FileSystemException e) {
+				linksUnsupported = true;
+				LOGGER.warn("[!PDF] Hard links are not supported, duplicate PDF files will not be merged: " + e.getLocalizedMessage());
+			}
+		}
+		index.put(file.getName(), new Entry(getPath(file), hash, file.length(), file.lastModified(), System.currentTimeMillis()));
+	}
+
+	/**
+	 * Evicts the least recently used downloaded (and not pinned) files until the
+	 * distinct contents fit in {@link #maxSize}
+	 * 
+	 * @return Whether any file has been evicted
+	 */
+	private static boolean evict() throws IOException {
+		if (maxSize < 0) {
+			return false;
+		}
+		Map<String, List<String>> namesByHash = index.entrySet().stream()
+				.collect(Collectors.groupingBy(e -> e.getValue().hash, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+		long size = 0;
+		List<String> candidates = new ArrayList<>();
+		for (Map.Entry<String, List<String>> e : namesByHash.entrySet()) {
+			size += index.get(e.getValue().get(0)).size;
+			if (e.getValue().stream().noneMatch(name -> index.get(name).isCurated() || pinned.contains(name))) {
+				candidates.add(e.getKey());
+			}
+		}
+		candidates.sort(Comparator.comparingLong(hash -> namesByHash.get(hash).stream().mapToLong(name -> index.get(name).accessed).max().orElse(0)));
+		boolean evicted = false;
+		for (String hash : candidates) {
+			if (size <= maxSize) {
+				break;
+			}
+			List<String> names = namesByHash.get(hash);
+			size -= index.get(names.get(0)).size;
+			for (String name : names) {
+				Files.deleteIfExists(new File(root, index.remove(name).path).toPath());
+			}
+			Files.deleteIfExists(getObject(hash).toPath());
+			evicted = true;
+			LOGGER.debug(MessageFormat.format("[PDF] Evicted {0} ({1})", hash, names));
+		}
+		return evicted;
+	}
+
+	private static File getObject(String hash) {
+		return new File(new File(new File(root, OBJECTS_DIR), hash.substring(0, 2)), hash + PDF_EXTENSION);
+	}
+
+	private static String getPath(File file) {
+		return root.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+	}
+
+	private static String hash(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+			return String.format("%064x", new BigInteger(1, digest.digest()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -52,6 +52,10 @@ public class Person extends Item {
 		return this.metadata.getPersonNameVariants();
 	}
 	
+	public void setNameVariants(List<String> nameVariants) {
+		this.metadata.setPersonNameVariants(nameVariants);
+	}
+	
 	public List<String> getAffiliations() {
 		return this.metadata.getPersonAffiliations();
 	}
@@ -1,9 +1,13 @@
 package es.sistedes.wordpress.migrator.dsmodel;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
-import java.io.OutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -12,49 +16,61 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xhtmlrenderer.layout.SharedContext;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
 import es.sistedes.wordpress.migrator.wpmodel.Author;
 import es.sistedes.wordpress.migrator.wpmodel.Document.License;
+import es.sistedes.wordpress.migrator.wpmodel.EditionInfo;
+import es.sistedes.wordpress.migrator.wpmodel.HtmlCleaner;
 import es.sistedes.wordpress.migrator.wpmodel.Track;
 
 public class PreliminarsPublication extends Publication {
 
 	private transient static final Logger LOGGER = LoggerFactory.getLogger(PreliminarsPublication.class);
 	
+	transient static final HtmlCleaner CONTENTS_CLEANER = new HtmlCleaner(
+			HtmlCleaner.removeNbspParagraphs(),
+			HtmlCleaner.collapseSpaces(),
+			HtmlCleaner.removeAttribute("style"),
+			HtmlCleaner.removeEmpty(true),
+			HtmlCleaner.rename("h1, h2, h3, h4, h5, h6", "h2"),
+			HtmlCleaner.paragraphsToHeadings("u", "h2"),
+			HtmlCleaner.paragraphsToHeadings("strong", "h2"),
+			HtmlCleaner.unwrap("u"),
+			HtmlCleaner.clearBlankLines());
+	
+	private transient static final String HTML_EXTENSION = ".html";
+	private transient static final String KEY_EXTENSION = ".sha256";
+	
 	private transient String contents;
+	private transient Future<?> rendering;
 	
 	public PreliminarsPublication(String title, String _abstract, List<String> keywords, List<Author> authors, String sistedesIdentifier, String licenseName, Date date, String contents) {
 		super(title, _abstract, keywords, authors, sistedesIdentifier, licenseName, date);
 		this.contents = contents;
 		setType(Type.PRELIMINARS.getName());
-		if (!getFile().exists()) {
+		// Render the files in background, getFiles() waits for them
+		this.rendering = PdfRenderer.submit(() -> {
 			createFile();
-		}
+			return null;
+		});
 	}
 
 	public static PreliminarsPublication from(Collection collection, Track track) {
-		String cleanContent = track.getDescription().replaceAll("<p>&nbsp;</p>", "").trim();
-		cleanContent = cleanContent.replaceAll("&nbsp;"," ").trim();
-		cleanContent = cleanContent.replaceAll("[  ]+"," ").trim();
-		cleanContent = Pattern.compile("\\s*style=\".*?\"", Pattern.DOTALL).matcher(cleanContent).replaceAll("").trim();
-		cleanContent = Pattern.compile("<(.+?)>\\s*</\\1>\\s*", Pattern.DOTALL).matcher(cleanContent).replaceAll("").trim();
-		cleanContent = Pattern.compile("<(:?[Hh]\\d)>(.*?)</\\1>", Pattern.DOTALL).matcher(cleanContent).replaceAll("<h2>$2</h2>").trim();
-		cleanContent = Pattern.compile("<[Pp]>\\s*<[Uu]>(.*?)</[Uu]>\\s*</[Pp]>", Pattern.DOTALL).matcher(cleanContent).replaceAll("<h2>$1</h2>").trim();
-		cleanContent = Pattern.compile("<[Pp]>\\s*<(:?STRONG|strong)>(.*?)</(:?STRONG|strong)>\\s*</[Pp]>", Pattern.DOTALL).matcher(cleanContent).replaceAll("<h2>$2</h2>").trim();
-		cleanContent = Pattern.compile("<[Uu]>(.*?)</[Uu]>", Pattern.DOTALL).matcher(cleanContent).replaceAll("$1").trim();
-		cleanContent = Pattern.compile("^\\s*$", Pattern.MULTILINE).matcher(cleanContent).replaceAll("").trim();
+		String cleanContent = CONTENTS_CLEANER.clean(track.getId(), track.getDescription());
+		EditionInfo info = track.getEdition().getInfo();
 
 		Matcher matcher;
 		String suffix;
@@ -73,24 +89,24 @@ public class PreliminarsPublication extends Publication {
 		String title = track.getTitle().replaceFirst("^\\d+\\.\\W+", "");
 		String _abstract = "";
 		if (track.getTitle().matches(".*[Cc]omit[eé]\\s+[Dd]e\\s+[Pp]rograma.*")) {
-			_abstract = "Comité de programa de las " + track.getEdition().getName() + ".";
+			_abstract = "Comité de programa de las " + info.getName() + ".";
 		} else if (track.getTitle().matches(".*[Cc]omit[eé]s?.*")) {
-			_abstract = "Comités de las " + track.getEdition().getName() + ".";
+			_abstract = "Comités de las " + info.getName() + ".";
 		} else if (track.getTitle().matches(".*[Pp]reliminares.*")) {
-			_abstract = "Prefacio de las " + track.getEdition().getName() + ".";
+			_abstract = "Prefacio de las " + info.getName() + ".";
 			title = "Prefacio";
 		} else if (track.getTitle().matches(".*[Pp]refacio.*")) {
-			_abstract = "Prefacio de las " + track.getEdition().getName() + ".";
+			_abstract = "Prefacio de las " + info.getName() + ".";
 		} else if (track.getTitle().matches(".*[Cc]onferencia\\s+[Ii]nvitada.*")) {
-			_abstract = "Conferencia invitada en las " + track.getEdition().getName() + " por el " + title.split(":")[1].trim() + ".";
+			_abstract = "Conferencia invitada en las " + info.getName() + " por el " + title.split(":")[1].trim() + ".";
 		} else if (track.getTitle().matches(".*[Cc]harla\\s+[Ii]nvitada.*")) {
-			_abstract = "Conferencia invitada \"" + title.split(":")[0].trim() + "\" en las " + track.getEdition().getName() + ".";
+			_abstract = "Conferencia invitada \"" + title.split(":")[0].trim() + "\" en las " + info.getName() + ".";
 		} else if (track.getTitle().matches(".*[Kk]eynote.*")) {
-			_abstract = "Conferencia invitada \"" + title.split(":")[0].trim() + "\" en las " + track.getEdition().getName() + ".";
+			_abstract = "Conferencia invitada \"" + title.split(":")[0].trim() + "\" en las " + info.getName() + ".";
 		} else if (track.getTitle().matches(".*[IÍií]ndice.*")) {
-			_abstract = "Índice de las " + track.getEdition().getProceedingsName() + ".";
+			_abstract = "Índice de las " + info.getProceedingsName() + ".";
 		} else if (track.getTitle().matches(".*[Tt]utorial.*:.*")) {
-			_abstract = "Tutorial \"" + title.split(":")[1].trim() + "\" en las " + track.getEdition().getName() + ".";
+			_abstract = "Tutorial \"" + title.split(":")[1].trim() + "\" en las " + info.getName() + ".";
 		}
 		
 		final PreliminarsPublication publication = new PreliminarsPublication(
@@ -99,18 +115,18 @@ public class PreliminarsPublication extends Publication {
 				null,
 				null,
 				collection.getSistedesIdentifier() + "/" + suffix, License.CC_BY_NC_ND.getName(),
-				track.getEdition().getDate(),
+				info.getDate(),
 				cleanContent);
-		publication.setIsPartOf(track.getEdition().getProceedingsName());
+		publication.setIsPartOf(info.getProceedingsName());
 		publication.setProvenance(("Automatically imported from " + track.getLink() + " on " + ZonedDateTime.ofInstant(Instant.now().truncatedTo(ChronoUnit.SECONDS), ZoneId.of("GMT"))).replace("[GMT]", " (GMT)"));
 		publication.metadata.setSistedesConferenceName(track.getEdition().getConference().getTitle());
 		publication.metadata.setSistedesConferenceAcronym(track.getEdition().getConference().getAcronym());
-		publication.metadata.setSistedesEditionName(track.getEdition().getName());
+		publication.metadata.setSistedesEditionName(info.getName());
 		publication.metadata.setSistedesEditionDate(new SimpleDateFormat("yyyy-MM-dd").format(
-				track.getEdition().getDate()));
-		publication.metadata.setSistedesEditionLocation(track.getEdition().getLocation());
-		publication.metadata.setSistedesProceedingsName(track.getEdition().getProceedingsName());
-		publication.metadata.setSistedesProceedingsEditor(track.getEdition().getEditors());
+				info.getDate()));
+		publication.metadata.setSistedesEditionLocation(info.getLocation());
+		publication.metadata.setSistedesProceedingsName(info.getProceedingsName());
+		publication.metadata.setSistedesProceedingsEditor(info.getEditors());
 		publication.metadata.setPublisher("Sistedes");
 		return publication;
 	}
@@ -119,7 +135,19 @@ public class PreliminarsPublication extends Publication {
 		return this.contents;
 	}
 	
-	private void createFile() {
+	/**
+	 * Creates the PDF and HTML files of the preliminaries, unless they have
+	 * already been created from the same title and contents. Files without a
+	 * key (i.e., created by hand or by older versions) are always kept.
+	 */
+	private void createFile() throws IOException {
+		File keyFile = new File(FilenameUtils.removeExtension(getFile().getPath()) + KEY_EXTENSION);
+		String key = getKey();
+		if (getFile().exists() && (!keyFile.exists() || key.equals(FileUtils.readFileToString(keyFile, StandardCharsets.UTF_8).trim()))) {
+			LOGGER.debug(MessageFormat.format("[PDF] ''{0}'' is up to date", getFile().getName()));
+			return;
+		}
+		
 		StringBuilder builder = new StringBuilder();
 		builder.append("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">\n");
 		builder.append("<html>\n");
@@ -137,32 +165,49 @@ public class PreliminarsPublication extends Publication {
 		
 		
 		{
-			File file = new File(FilenameUtils.removeExtension(getFile().getPath()) + ".html");
+			File file = new File(FilenameUtils.removeExtension(getFile().getPath()) + HTML_EXTENSION);
+			FileUtils.forceMkdirParent(file);
 			try (FileWriter writer = new FileWriter(file)) {
 				writer.write(builder.toString());
-			} catch (Exception e) {
-				throw new RuntimeException(e);
 			}
 		}
 		{
 			File file = getFile();
-			try (OutputStream outputStream = new FileOutputStream(file)) {
-			    ITextRenderer renderer = new ITextRenderer();
-			    SharedContext sharedContext = renderer.getSharedContext();
-			    sharedContext.setPrint(true);
-			    sharedContext.setInteractive(false);
-			    renderer.setDocumentFromString(document.html());
-			    renderer.layout();
-			    renderer.createPDF(outputStream);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
+			PdfRenderer.render(document.html(), file);
+			PdfStore.add(file);
 		}
+		FileUtils.writeStringToFile(keyFile, key, StandardCharsets.UTF_8);
 	}
 	
+	/**
+	 * Returns the hash of the title and contents the files are rendered from
+	 */
+	private String getKey() {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest((getTitle() + "\0" + getContents()).getBytes(StandardCharsets.UTF_8));
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Returns the HTML and PDF files of the preliminaries, waiting for them to be
+	 * rendered if needed
+	 * 
+	 * @return
+	 */
 	public File[] getFiles() {
+		try {
+			rendering.get();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
 		return new File[] { 
-			new File(FilenameUtils.removeExtension(getFile().getPath()) + ".html"),
+			new File(FilenameUtils.removeExtension(getFile().getPath()) + HTML_EXTENSION),
 			getFile()
 		};
 	}
@@ -2,10 +2,8 @@ package es.sistedes.wordpress.migrator.dsmodel;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
@@ -18,8 +16,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.RegExUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.ParseException;
@@ -32,13 +28,11 @@ import com.google.gson.Gson;
 import es.sistedes.wordpress.migrator.wpmodel.Article;
 import es.sistedes.wordpress.migrator.wpmodel.Author;
 import es.sistedes.wordpress.migrator.wpmodel.Document.License;
+import es.sistedes.wordpress.migrator.wpmodel.EditionInfo;
 
 public class Publication extends Item {
 
 	private transient static final Logger LOGGER = LoggerFactory.getLogger(Publication.class);
-	private transient static final String PDF_CACHE_DIR = "pdfcache";
-	private transient static final String PAPERS_DIR = "/articulos";
-	private transient static final String ABSTRACTS_DIR = "/resumenes";
 
 	private transient List<Author> authors = new ArrayList<>();
 	
@@ -53,10 +47,29 @@ public class Publication extends Item {
 		}
 
 	public static Publication from(Collection collection, Article article) {
+		return from(collection, article, true);
+	}
+
+	/**
+	 * Creates the {@link Publication} of the given {@link Article}, downloading
+	 * its PDF file into the PDF cache only if <code>download</code> is
+	 * <code>true</code> (otherwise, it is expected to be streamed on upload).
+	 * The PDF file is pinned in the {@link PdfStore} until it is released
+	 * 
+	 * @param collection
+	 * @param article
+	 * @param download
+	 * @return
+	 */
+	public static Publication from(Collection collection, Article article, boolean download) {
 		File file = getPdfFile(article.getHandle());
+		if (file != null) {
+			// Cached or not, the file must be kept until the publication is uploaded
+			PdfStore.pin(file);
+		}
 		try {
-			if (file != null && !file.exists()) {
-				FileUtils.copyInputStreamToFile((InputStream) new URL(article.getDocumentUrl()).getContent(), file);
+			if (download && file != null && !file.exists()) {
+				PdfPrefetcher.fetch(new URL(article.getDocumentUrl()), file);
 			}
 		} catch (Exception e) {
 			LOGGER.error("Unable to retrieve PDF file for "  + article.getLink());
@@ -70,16 +83,17 @@ public class Publication extends Item {
 				article.getLicense(),
 				collection.getDate());
 		publication.setType(publication.isAbstract() ? Type.ABSTRACT.getName() : Type.PAPER.getName());
-		publication.setIsPartOf(article.getTrack().getEdition().getProceedingsName());
+		EditionInfo info = article.getTrack().getEdition().getInfo();
+		publication.setIsPartOf(info.getProceedingsName());
 		publication.setProvenance(("Automatically imported from " + article.getLink() + " on " + ZonedDateTime.ofInstant(Instant.now().truncatedTo(ChronoUnit.SECONDS).truncatedTo(ChronoUnit.SECONDS), ZoneId.of("GMT"))).replace("[GMT]", " (GMT)"));
 		publication.metadata.setSistedesConferenceName(article.getTrack().getEdition().getConference().getTitle());
 		publication.metadata.setSistedesConferenceAcronym(article.getTrack().getEdition().getConference().getAcronym());
-		publication.metadata.setSistedesEditionName(article.getTrack().getEdition().getName());
+		publication.metadata.setSistedesEditionName(info.getName());
 		publication.metadata.setSistedesEditionDate(new SimpleDateFormat("yyyy-MM-dd").format(
-				article.getTrack().getEdition().getDate()));
-		publication.metadata.setSistedesEditionLocation(article.getTrack().getEdition().getLocation());
-		publication.metadata.setSistedesProceedingsName(article.getTrack().getEdition().getProceedingsName());
-		publication.metadata.setSistedesProceedingsEditor(article.getTrack().getEdition().getEditors());
+				info.getDate()));
+		publication.metadata.setSistedesEditionLocation(info.getLocation());
+		publication.metadata.setSistedesProceedingsName(info.getProceedingsName());
+		publication.metadata.setSistedesProceedingsEditor(info.getEditors());
 		publication.metadata.setPublisher("Sistedes");
 		return publication;
 	}
@@ -154,7 +168,7 @@ public class Publication extends Item {
 	}
 
 	public boolean isAbstract() {
-		return Paths.get(PDF_CACHE_DIR + ABSTRACTS_DIR, RegExUtils.replaceAll(getSistedesIdentifier(), "/", "-") + ".pdf").toFile().exists();
+		return PdfStore.isAbstract(getSistedesIdentifier());
 	}
 	
 	public void setAuthors(List<Author> authors) {
@@ -198,12 +212,8 @@ public class Publication extends Item {
 	protected static File getPdfFile(String handle) {
 		if (handle == null) {
 			return null;
-		} else if (Paths.get(PDF_CACHE_DIR + PAPERS_DIR, handle.replaceAll("/", "-") + ".pdf").toFile().exists()){
-			return Paths.get(PDF_CACHE_DIR + PAPERS_DIR, handle.replaceAll("/", "-") + ".pdf").toFile();
-		} else if (Paths.get(PDF_CACHE_DIR + ABSTRACTS_DIR, handle.replaceAll("/", "-") + ".pdf").toFile().exists()){
-			return Paths.get(PDF_CACHE_DIR + ABSTRACTS_DIR, handle.replaceAll("/", "-") + ".pdf").toFile();
 		} else {
-			return Paths.get(PDF_CACHE_DIR, handle.replaceAll("/", "-") + ".pdf").toFile();
+			return PdfStore.getFile(handle);
 		}
 	}
 	
@@ -9,8 +9,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.RegExUtils;
@@ -21,6 +19,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 
 import es.sistedes.wordpress.migrator.DelayedStreamOpener;
@@ -42,11 +41,13 @@ public class Article extends Document {
 	private Map<String, String> content;
 	private Map<String, String> excerpt;
 	private Map<String, String> metadata;
+	private JsonObject _embedded;
 	// END: JSON fields
 
 	private transient Track track;
 	private transient List<Author> authors;
 	private transient String cleanTitle;
+	private transient String documentUrl;
 
 	public Track getTrack() {
 		return track;
@@ -63,129 +64,13 @@ public class Article extends Document {
 	public String getTitle() {
 		if (cleanTitle != null) return cleanTitle;
 		String rawTitle = StringUtils.trimToNull(title.get("rendered"));
-		Matcher matcher;
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\((:?[Tt]ool\\s*)[Dd]demo(?:straci[oó]n)?\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
+		TitleNormalizer.Result result = TitleNormalizer.normalize(rawTitle);
+		if (result.isChanged()) {
+			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}'' ({2})", rawTitle, result.getTitle(), result.getRule()));
+		} else {
+			LOGGER.info(MessageFormat.format("[TITLE] Unchanged: ''{0}''", rawTitle));
 		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Tt]utorial\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Ww]ork in [Pp]rogress\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Tt]rabajo en [Pp]rogreso\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Tt]rabajo [Oo]riginal\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Rr]esumen\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Aa]bstract\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Ss]ummary\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Ee]xtended [Aa]bstract\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\(RELEVANTE YA PUBLICADO\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\(YA PUBLICADO\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\(YA PUBLICADO\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\(Trabajo ya publicado\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\([Aa]rtículo [Rr]elevante\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^«?(.*?)»?\\s*\\(Trabajo de alto nivel\\)\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^\\([Aa]rtículo [Rr]elevante\\)\\s*«?(.*?)»?\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^\\s*[Tt]rabajo [Rr]elevante\\s*\\W*\\s*«?(.*?)»?\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^\\([Tt]rabajo [Rr]elevante\\)\\s*«?(.*?)»?\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^ART[IÍ]CULO RELEVANTE:\\s*«?(.*?)»?\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		matcher = Pattern.compile("^[Ee]xtended [Aa]bstract of\\s*«?(.*?)»?\\s*$").matcher(rawTitle);
-		if (matcher.matches()) {
-			LOGGER.info(MessageFormat.format("[TITLE] ''{0}'' -> ''{1}''", rawTitle, matcher.group(1)));
-			cleanTitle = matcher.group(1);
-			return cleanTitle;
-		}
-		LOGGER.info(MessageFormat.format("[TITLE] Unchanged: ''{0}''", rawTitle));
-		cleanTitle = rawTitle;
+		cleanTitle = result.getTitle();
 		return cleanTitle;
 	}
 
@@ -216,8 +101,14 @@ public class Article extends Document {
 	public List<String> getKeywords() {
 		List<String> result;
 		try {
-			String termsUrl = StringUtils.trimToNull(_links.get("wp:term")[0].get("href"));
-			Term[] terms = new Gson().fromJson(new InputStreamReader(DelayedStreamOpener.open(new URL(termsUrl))), Term[].class);
+			Term[] terms;
+			if (_embedded != null && _embedded.has("wp:term")) {
+				// Terms were embedded when the article was requested
+				terms = new Gson().fromJson(_embedded.getAsJsonArray("wp:term").get(0), Term[].class);
+			} else {
+				String termsUrl = StringUtils.trimToNull(_links.get("wp:term")[0].get("href"));
+				terms = new Gson().fromJson(new InputStreamReader(DelayedStreamOpener.open(new URL(termsUrl))), Term[].class);
+			}
 			result = Arrays.asList(terms).stream()
 					.map(t -> StringUtils.trim(t.name))
 					.map(k -> WordUtils.capitalize(k))
@@ -251,21 +142,44 @@ public class Article extends Document {
 	}
 	
 	public String getDocumentUrl() {
+		if (documentUrl != null) return documentUrl;
 		try {
 			URL postUrl = new URL(link);
 			if (StringUtils.isNotBlank(metadata.get("paper_pdf_file"))) {
-				return new URL(postUrl.getProtocol(), postUrl.getHost(), postUrl.getPort(), "/submissions/" + StringUtils.trimToNull(metadata.get("paper_pdf_file"))).toString();
-			} else if (StringUtils.isNotBlank(metadata.get("paper_pdf"))) {
-				String mediaId = StringUtils.trimToNull(metadata.get("paper_pdf"));
-				URL mediaUrl = new URL(postUrl.getProtocol(), postUrl.getHost(), postUrl.getPort(), "/wp-json/wp/v2/media/" + mediaId);
+				documentUrl = new URL(postUrl.getProtocol(), postUrl.getHost(), postUrl.getPort(), "/submissions/" + StringUtils.trimToNull(metadata.get("paper_pdf_file"))).toString();
+			} else if (getMediaId() != null) {
+				URL mediaUrl = new URL(postUrl.getProtocol(), postUrl.getHost(), postUrl.getPort(), WorpressEndpoints.MEDIA_ENDPOINT + "/" + getMediaId());
 				Media media = new Gson().fromJson(new InputStreamReader(DelayedStreamOpener.open(mediaUrl)), Media.class);
-				return media.getAttachmentUrl();
-			} else return null;
+				documentUrl = media.getAttachmentUrl();
+			}
+			return documentUrl;
 		} catch (IOException | JsonSyntaxException | JsonIOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 	
+	/**
+	 * Returns the ID of the Wordpress media holding the PDF of this article, if
+	 * the PDF is not an uploaded submission
+	 * 
+	 * @return
+	 */
+	String getMediaId() {
+		if (StringUtils.isNotBlank(metadata.get("paper_pdf_file"))) {
+			return null;
+		}
+		return StringUtils.trimToNull(metadata.get("paper_pdf"));
+	}
+	
+	/**
+	 * Sets the already fetched Wordpress media holding the PDF of this article
+	 * 
+	 * @param media
+	 */
+	void setMedia(Media media) {
+		this.documentUrl = media.getAttachmentUrl();
+	}
+	
 	public List<Author> getAuthors() {
 		if (authors == null) {
 			authors = new ArrayList<>();
@@ -6,11 +6,10 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.util.Map.Entry;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,53 +20,23 @@ import org.apache.commons.lang3.StringUtils;
 public class Author {
 	
 	private static final Logger LOGGER = Logger.getLogger(Author.class.getCanonicalName());
-	private static final String MALE_NAMES_FILE = "/male-names.csv";
-	private static final String FEMALE_NAMES_FILE = "/female-names.csv";
-	private static final String SURNAMES_FILE = "/surnames.csv";
 	private static final String EXCEPTIONS_FILE = "exceptions.txt";
-	private static SortedMap<String, Integer> names = new TreeMap<>();
-	private static SortedMap<String, Integer> surnames = new TreeMap<>();
-	private static SortedMap<String, String[]> exceptions = new TreeMap<>();
+	private static SortedMap<String, String[]> exceptions = new ConcurrentSkipListMap<>();
 
 	static {
-		loadNames();
-		loadSurnames();
 		loadExceptions();
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> saveExceptions()));
 	}
 	
-	private static void loadNames() {
-		for (String file : new String [] { MALE_NAMES_FILE, FEMALE_NAMES_FILE}) {
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(Author.class.getResourceAsStream(file)))) {
-				String line;
-				while ((line = reader.readLine()) != null) {
-					if (line.trim().startsWith("#")) continue;
-					String[] fields = line.split(",");
-					if (fields.length >= 2) {
-						names.putIfAbsent(fields[0].trim(), Integer.valueOf(fields[1].trim()));
-					}
-				}
-			} catch (Exception e) {
-				LOGGER.log(Level.SEVERE, String.format("Unable to load '%s' into names registry", file.replaceFirst("/", "")));
-			}
-		}
+	/**
+	 * Names and surnames registries, which are only loaded when a name needs to
+	 * be split
+	 */
+	private static class Registries {
+		private static final NameDictionary names = NameDictionary.loadNames();
+		private static final NameDictionary surnames = NameDictionary.loadSurnames();
 	}
 
-	private static void loadSurnames() {
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(Author.class.getResourceAsStream(SURNAMES_FILE)))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				if (line.trim().startsWith("#")) continue;
-				String[] fields = line.split(",");
-				if (fields.length >= 2) {
-					surnames.put(fields[0].trim(), Integer.valueOf(fields[1].trim()));
-				}
-			}
-		} catch (Exception e) {
-			LOGGER.log(Level.SEVERE, String.format("Unable to load '%s' into surnames registry", SURNAMES_FILE.replaceFirst("/", "")));
-		}
-	}
-	
 	private static void loadExceptions() {
 		try (BufferedReader reader = new BufferedReader(new FileReader(new File(EXCEPTIONS_FILE)))) {
 			String line;
@@ -137,7 +106,7 @@ public class Author {
 						break;
 					} else {
 						String cleanField = StringUtils.stripAccents(fields[i]).toUpperCase();
-						if (names.containsKey(StringUtils.stripAccents(
+						if (Registries.names.containsKey(StringUtils.stripAccents(
 								StringUtils.join(ArrayUtils.subarray(fields, 0, i + 1), " ")).toUpperCase()
 									.replace("MA ", "MARIA ")
 									.replace(" DEL", "")
@@ -149,7 +118,7 @@ public class Author {
 							// Also, sometimes "Maria" is abbreviated as "Ma". We consider safe 
 							// to do the replacement since "Ma" is not a common Spanish name
 							continue;
-						} else if (names.getOrDefault(cleanField, 0) > surnames.getOrDefault(cleanField, 0) ) {
+						} else if (Registries.names.getOrDefault(cleanField, 0) > Registries.surnames.getOrDefault(cleanField, 0) ) {
 							// The word is more common as a name than as a surname
 							continue;
 						} else {
@@ -27,6 +27,7 @@ public class Bulletin extends Document {
 	private String date;
 	private String handle;
 	private String documentUrl;
+	private Date parsedDate;
 	
 	public Bulletin(URL url) throws IOException  {
 		// Again we have no API to easily retrieve this information
@@ -85,16 +86,19 @@ public class Bulletin extends Document {
 		return "";
 	}
 	
-	public Date getDate() {
-		DateFormat fmt = new SimpleDateFormat("MMMM yyyy", Locale.forLanguageTag("es"));
-		try {
-			// Note: the "de" particle not always appears, so we
-			// directly remove it before trying to parse to avoid
-			// having to try different SimpleDateFormats
-			return fmt.parse(title.split(" - ")[1].replaceAll("de", ""));
-		} catch (ParseException e) {
-			throw new RuntimeException(e);
+	public synchronized Date getDate() {
+		if (parsedDate == null) {
+			DateFormat fmt = new SimpleDateFormat("MMMM yyyy", Locale.forLanguageTag("es"));
+			try {
+				// Note: the "de" particle not always appears, so we
+				// directly remove it before trying to parse to avoid
+				// having to try different SimpleDateFormats
+				parsedDate = fmt.parse(title.split(" - ")[1].replaceAll("de", ""));
+			} catch (ParseException e) {
+				throw new RuntimeException(e);
+			}
 		}
+		return parsedDate;
 	}
 	
 	
@@ -3,8 +3,6 @@ package es.sistedes.wordpress.migrator.wpmodel;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -12,38 +10,48 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.text.StringEscapeUtils;
+import org.jsoup.nodes.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
-import es.sistedes.wordpress.migrator.DelayedStreamOpener;
-
 public class Conference extends Library {
 
 	private transient final static Logger logger = LoggerFactory.getLogger(Conference.class);
+	
+	private transient final static Pattern ACRONYM = Pattern.compile(".*\\(\\b(?<acro>[A-Z]+)\\b\\).*");
+	
+	private transient final static HtmlCleaner DESCRIPTION_CLEANER = new HtmlCleaner(
+			HtmlCleaner.removeNbspParagraphs(),
+			HtmlCleaner.removeLists("ul", item -> item.childNodeSize() > 0 && item.childNode(0) instanceof Element
+					&& ((Element) item.childNode(0)).is("a[href]")
+					&& ((Element) item.childNode(0)).text().startsWith("Actas de las ")));
+	
 	private transient List<Edition> editions;
+	private transient String acronym;
 
 	public String getAcronym() {
-		Matcher matcher = Pattern.compile(".*\\(\\b(?<acro>[A-Z]+)\\b\\).*").matcher(getTitle());
-		if (matcher.matches()) {
-			return matcher.group("acro");
-		} else {
-			throw new RuntimeException(String.format("Unable to determine acronym for conference '%s'", getTitle()));
+		if (acronym == null) {
+			Matcher matcher = ACRONYM.matcher(getTitle());
+			if (matcher.matches()) {
+				acronym = matcher.group("acro");
+			} else {
+				throw new RuntimeException(String.format("Unable to determine acronym for conference '%s'", getTitle()));
+			}
 		}
+		return acronym;
 	}
 	
-	public List<Edition> getEditions() throws IOException {
+	public synchronized List<Edition> getEditions() throws IOException {
 		if (editions == null) {
 			try {
 				Gson gson = new GsonBuilder().setDateFormat("yyyy-MM-dd'T'HH:mm:ss").create();
-				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId()));
-				this.editions = Collections.unmodifiableList(Arrays.asList(gson.fromJson(
-						StringEscapeUtils.unescapeXml(
-								IOUtils.toString(DelayedStreamOpener.open(url), StandardCharsets.UTF_8)), Edition[].class)));
+				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId())
+						+ String.format(WorpressEndpoints.FIELDS_PARAM, WorpressEndpoints.EDITION_FIELDS));
+				this.editions = Collections.unmodifiableList(Crawler.fetchPages(url, 
+						reader -> gson.fromJson(new XmlUnescapingReader(reader), Edition[].class)));
 				this.editions.stream().forEach(e -> e.setConference(this));
 			} catch (MalformedURLException e) {
 				// Should not happen...
@@ -59,11 +67,6 @@ public class Conference extends Library {
 	
 	@Override
 	public String getDescription() {
-		String description = super.getDescription();
-		description = description.replaceAll("<p>&nbsp;</p>", "").trim();
-		description = Pattern.compile(
-				"<ul>\\s*<li>(?:<a href=\"\\S+\">Actas de las .*?</li>)+\\s*</ul>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		return description;
+		return DESCRIPTION_CLEANER.clean(getId(), super.getDescription());
 	}
 }
@@ -1,10 +1,8 @@
 package es.sistedes.wordpress.migrator.wpmodel;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -12,18 +10,17 @@ import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
 
-import es.sistedes.wordpress.migrator.DelayedStreamOpener;
-
 public class ConferencesLibrary extends Library {
 
 	private transient List<Conference> conferences;
 
-	public List<Conference> getConferences() throws IOException {
+	public synchronized List<Conference> getConferences() throws IOException {
 		if (conferences == null) {
 			try {
-				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId()));
+				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId())
+						+ String.format(WorpressEndpoints.FIELDS_PARAM, WorpressEndpoints.LIBRARY_FIELDS));
 				this.conferences = Collections
-						.unmodifiableList(Arrays.asList(new Gson().fromJson(new InputStreamReader(DelayedStreamOpener.open(url)), Conference[].class)));
+						.unmodifiableList(Crawler.fetchPages(url, reader -> new Gson().fromJson(reader, Conference[].class)));
 			} catch (MalformedURLException e) {
 				// Should not happen...
 				new RuntimeException(e);
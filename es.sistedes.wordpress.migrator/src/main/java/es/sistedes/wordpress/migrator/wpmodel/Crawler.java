@@ -0,0 +1,140 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import es.sistedes.wordpress.migrator.DelayedStreamOpener;
+
+/**
+ * Fetches batches of Wordpress resources concurrently on a bounded pool of
+ * threads. Requests still go through {@link DelayedStreamOpener}, so they are
+ * rate limited and cached as any other request.
+ *
+ * @author agomez
+ *
+ */
+public final class Crawler {
+
+	private static final int DEFAULT_PARALLELISM = 4;
+	private static final String THREAD_NAME_PREFIX = "crawler-";
+
+	private static int parallelism = DEFAULT_PARALLELISM;
+	private static ExecutorService executor;
+
+	private Crawler() {
+	}
+
+	/**
+	 * Sets the maximum number of concurrent requests (1 means sequential)
+	 *
+	 * @param parallelism
+	 */
+	public static synchronized void setParallelism(int parallelism) {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+		Crawler.parallelism = Math.max(1, parallelism);
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			final AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+				Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Fetches the given {@link URL}s and parses their contents, streamed as UTF-8
+	 * text, using the given <code>parser</code>. The results keep the order of the <code>urls</code>.
+	 *
+	 * Batches requested from a crawler thread are fetched sequentially, so that
+	 * nested batches can never exhaust the pool waiting for each other.
+	 *
+	 * @param <T>
+	 * @param urls
+	 * @param parser
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> List<T> fetchAll(List<URL> urls, Function<Reader, T> parser) throws IOException {
+		List<T> result = new ArrayList<>(urls.size());
+		if (urls.size() <= 1 || parallelism <= 1 || Thread.currentThread().getName().startsWith(THREAD_NAME_PREFIX)) {
+			for (URL url : urls) {
+				result.add(parser.apply(fetch(url)));
+			}
+			return result;
+		}
+		List<Future<T>> futures = new ArrayList<>(urls.size());
+		ExecutorService executor = getExecutor();
+		for (URL url : urls) {
+			futures.add(executor.submit(() -> parser.apply(fetch(url))));
+		}
+		try {
+			for (Future<T> future : futures) {
+				result.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Fetches all the pages of the given Wordpress collection query, following
+	 * the <code>X-WP-TotalPages</code> header of the first page. Once the first
+	 * page is known, the remaining ones are fetched concurrently.
+	 *
+	 * @param <T>
+	 * @param url
+	 * @param parser
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> List<T> fetchPages(URL url, Function<Reader, T[]> parser) throws IOException {
+		DelayedStreamOpener.Response first = DelayedStreamOpener.fetch(url);
+		List<T> result = new ArrayList<>(Arrays.asList(parser.apply(new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8))));
+		int totalPages = NumberUtils.toInt(first.getHeader(WorpressEndpoints.TOTAL_PAGES_HEADER), 1);
+		List<URL> pages = new ArrayList<>();
+		for (int page = 2; page <= totalPages; page++) {
+			pages.add(new URL(url + String.format(WorpressEndpoints.PAGE_PARAM, page)));
+		}
+		for (T[] page : fetchAll(pages, parser)) {
+			result.addAll(Arrays.asList(page));
+		}
+		return result;
+	}
+
+	private static Reader fetch(URL url) throws IOException {
+		return new InputStreamReader(DelayedStreamOpener.open(url), StandardCharsets.UTF_8);
+	}
+}
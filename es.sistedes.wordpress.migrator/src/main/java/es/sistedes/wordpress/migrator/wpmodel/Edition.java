@@ -3,34 +3,51 @@ package es.sistedes.wordpress.migrator.wpmodel;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.text.StringEscapeUtils;
+import org.jsoup.nodes.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 
-import es.sistedes.wordpress.migrator.DelayedStreamOpener;
-
 public class Edition extends Track {
 	
 	private transient final static Logger logger = LoggerFactory.getLogger(Edition.class);
 	
+	private transient final static Pattern YEAR = Pattern.compile(".*\\b(?<year>(?:199|20[012])[0-9])\\b.*");
+	
+	private transient final static Pattern LIBRARY_LINK = Pattern.compile("https?://biblioteca.sistedes.es\\S+");
+	
+	// The Bibtex reference, and everything after it, is not part of the description
+	transient final static HtmlCleaner DESCRIPTION_CLEANER = new HtmlCleaner(
+			HtmlCleaner.truncate("p:has(> a.citaBibtex)"),
+			HtmlCleaner.removeNbspParagraphs(),
+			HtmlCleaner.removeEmpty(false),
+			HtmlCleaner.removeParagraphs("em, i", Pattern.compile("\\(Eds?\\.\\), Actas de")),
+			HtmlCleaner.removeLists("ul", item -> item.childNodeSize() > 0 && item.childNode(0) instanceof Element
+					&& ((Element) item.childNode(0)).is("a")
+					&& LIBRARY_LINK.matcher(item.childNode(0).attr("href")).matches()),
+			HtmlCleaner.removeBlock("sub_tracks_conferencia"),
+			HtmlCleaner.removeBlock("cita-conferencia"),
+			HtmlCleaner.removeText(" A continuación se detalla el contenido de las actas:"),
+			HtmlCleaner.remove("ol#articulo_a_conferencia_list"),
+			HtmlCleaner.remove("hr"));
+	
 	// BEGIN: JSON fields
 	protected Date date; 
 	// END: JSON fields
 	
 	private transient Conference conference;
 	private transient List<Track> tracks;
+	private transient Integer year;
+	private transient EditionInfo info;
+	private transient EditionIndex index;
 	
 	public Date getDate() {
 		return date;
@@ -49,30 +66,41 @@ public class Edition extends Track {
 		// It is only correctly set for newer conferences, and this
 		// method is important to filter out which conferences are
 		// processes
-		Matcher matcher = Pattern.compile(".*\\b(?<year>(?:199|20[012])[0-9])\\b.*").matcher(getTitle());
-		if (matcher.matches()) {
-			return Integer.valueOf(matcher.group("year"));
-		} else {
-			throw new RuntimeException(String.format("Unable to determine year for conference edition '%s'", getTitle()));
+		if (year == null) {
+			Matcher matcher = YEAR.matcher(getTitle());
+			if (matcher.matches()) {
+				year = Integer.valueOf(matcher.group("year"));
+			} else {
+				throw new RuntimeException(String.format("Unable to determine year for conference edition '%s'", getTitle()));
+			}
 		}
+		return year;
 	}
 	
-	public String getName() {
-		String text = excerpt.get("rendered").replaceAll(" ", " "); // Replace ASCII 255 (non-breaking space) by regular space;
-		Matcher matcher = Pattern.compile("Actas de las (.*? \\(.*?\\))").matcher(text);
-		if (matcher.find()) {
-			return matcher.group(1);
-		} else {
-			throw new RuntimeException("Unable to get edition name for " + getTitle());
+	/**
+	 * Returns the {@link EditionInfo} of this edition, parsing it on the first
+	 * call
+	 * 
+	 * @return
+	 */
+	public synchronized EditionInfo getInfo() {
+		if (info == null) {
+			info = EditionInfo.parse(this, excerpt.get("rendered"));
 		}
+		return info;
 	}
 	
-	public List<Track> getTracks() throws IOException {
+	public String getName() {
+		return getInfo().getName();
+	}
+	
+	public synchronized List<Track> getTracks() throws IOException {
 		if (tracks == null) {
 			try {
-				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId()));
-				this.tracks = Collections.unmodifiableList(Arrays.asList(new Gson().fromJson(
-						StringEscapeUtils.unescapeXml(IOUtils.toString(DelayedStreamOpener.open(url), StandardCharsets.UTF_8)), Track[].class)));
+				URL url = new URL(getCollectionUrl() + String.format(WorpressEndpoints.LIBRARY_PARENT_QUERY, getId())
+						+ String.format(WorpressEndpoints.FIELDS_PARAM, WorpressEndpoints.TRACK_FIELDS));
+				this.tracks = Collections.unmodifiableList(Crawler.fetchPages(url, 
+						reader -> new Gson().fromJson(new XmlUnescapingReader(reader), Track[].class)));
 				this.tracks.forEach(t -> t.setEdition(this));
 			} catch (MalformedURLException e) {
 				// Should not happen...
@@ -92,77 +120,78 @@ public class Edition extends Track {
 		throw new UnsupportedOperationException();
 	}
 	
+	/**
+	 * Returns all the articles of this edition and its tracks, as returned by
+	 * {@link EditionIndex#getArticles()}
+	 */
 	@Override
 	public List<Article> getArticles() throws IOException {
-		List<Article> articles = new ArrayList<>(super.getArticles());
+		return getIndex().getArticles();
+	}
+
+	/**
+	 * Returns the {@link EditionIndex} of this edition, fetching all its articles
+	 * and building the index on the first call
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized EditionIndex getIndex() throws IOException {
+		if (index == null) {
+			fetchAllArticles();
+			List<List<Article>> tracksArticles = new ArrayList<>();
+			for (Track track : getTracks()) {
+				tracksArticles.add(track.getArticles());
+			}
+			index = new EditionIndex(this, super.getArticles(), getTracks(), tracksArticles);
+		}
+		return index;
+	}
+
+	/**
+	 * Fetches the articles of this edition and of all its tracks that have not
+	 * been loaded yet as a single batch, so that they are requested together
+	 * and crawled concurrently
+	 * 
+	 * @throws IOException
+	 */
+	private void fetchAllArticles() throws IOException {
+		List<Track> pending = new ArrayList<>();
+		List<URL> urls = new ArrayList<>();
+		if (!isArticlesLoaded()) {
+			pending.add(this);
+		}
 		for (Track track : getTracks()) {
-			articles.addAll(track.getArticles());
+			if (!track.isArticlesLoaded()) {
+				pending.add(track);
+			}
+		}
+		for (Track track : pending) {
+			urls.addAll(track.getArticleUrls());
+		}
+		List<Article> articles = fetchArticles(urls);
+		int from = 0;
+		for (Track track : pending) {
+			int to = from + track.getArticleUrls().size();
+			track.setArticles(articles.subList(from, to));
+			from = to;
 		}
-		return Collections.unmodifiableList(articles);
 	}
 
 	public String getLocation() {
-		String text = excerpt.get("rendered").replaceAll(" ", " "); // Replace ASCII 255 (non-breaking space) by regular space;
-		Matcher matcher = Pattern.compile("\\(" + conference.getAcronym() + "\\s*\\d+\\)\\.(.*?),").matcher(text);
-		if (matcher.find()) {
-			return matcher.group(1).trim();
-		} else {
-			throw new RuntimeException("Unable to get edition location for " + getTitle());
-		}
+		return getInfo().getLocation();
 	}
 
 	public String getProceedingsName() {
-		String text = excerpt.get("rendered").replaceAll(" ", " "); // Replace ASCII 255 (non-breaking space) by regular space;
-		Matcher matcher = Pattern.compile("(Actas de las .*? \\(.*?\\))").matcher(text);
-		if (matcher.find()) {
-			return matcher.group(1).trim();
-		} else {
-			throw new RuntimeException("Unable to get edition proceedings for " + getTitle());
-		}
+		return getInfo().getProceedingsName();
 	}
 
 	public List<String> getEditors() {
-		List<String> editors = new ArrayList<>();
-		String text = excerpt.get("rendered").replaceAll(" ", " "); // replace non-breaking spaces
-		Matcher matcher = Pattern.compile("<p>(?<ed1>.+?)\\s+(y\\s+(?<ed2>.+?)\\s+)?\\([Ee]ds?\\.\\)").matcher(text);
-		if (matcher.find()) {
-			if (matcher.group("ed1") != null) editors.add(matcher.group("ed1"));
-			if (matcher.group("ed2") != null) editors.add(matcher.group("ed2"));
-			return editors;
-		} else {
-			throw new RuntimeException("Unable to get edition proceedings for " + getTitle());
-		}
+		return getInfo().getEditors();
 	}
 	
 	@Override
 	public String getDescription() {
-		String description = super.getDescription();
-		description = description.replaceAll("<p>&nbsp;</p>", "").trim();
-		description = Pattern.compile(
-				"<(.*?)></\\1>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<p>\\s*<em.*?>(?:.*?)\\(Eds?\\.\\), Actas de(?:.*?)</em>\\s*</p>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<p>\\s*<i>(?:.*?)\\(Eds?\\.\\), Actas de(?:.*?)</i>\\s*</p>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<ul.*?>\\s*<li>(?:<a .*?href=\"https?://biblioteca.sistedes.es\\S+\">.*?</li>)+\\s*</ul>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<!-- \\[begin:sub_tracks_conferencia\\] -->(?:.*?)<!-- \\[end:sub_tracks_conferencia\\] -->", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<!-- \\[begin:cita-conferencia\\] -->(?:.*?)<!-- \\[end:cita-conferencia\\] -->", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				" A continuación se detalla el contenido de las actas:", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = Pattern.compile(
-				"<ol\\s+id=\"articulo_a_conferencia_list\">(?:.*?)</ol>", Pattern.DOTALL)
-				.matcher(description).replaceAll("").trim();
-		description = description.replaceAll("<hr ?/>", "").trim();
-		return description;
+		return DESCRIPTION_CLEANER.clean(getId(), super.getDescription());
 	}
 }
@@ -0,0 +1,106 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all the {@link Article}s of an {@link Edition}, built once all its
+ * articles (and the articles of its {@link Track}s) have been fetched. It
+ * answers the questions asked while migrating an edition without walking its
+ * tracks again.
+ *
+ * @author agomez
+ *
+ */
+public final class EditionIndex {
+
+	private final List<Article> articles;
+	private final Map<Track, List<Article>> articlesByTrack = new IdentityHashMap<>();
+	private final Map<String, Article> articlesByHandle = new HashMap<>();
+	private final boolean hasEmptyTracks;
+
+	EditionIndex(Edition edition, List<Article> ownArticles, List<Track> tracks, List<List<Article>> tracksArticles) {
+		List<Article> all = new ArrayList<>(ownArticles);
+		boolean emptyTracks = false;
+		articlesByTrack.put(edition, ownArticles);
+		for (int i = 0; i < tracks.size(); i++) {
+			List<Article> trackArticles = tracksArticles.get(i);
+			articlesByTrack.put(tracks.get(i), trackArticles);
+			emptyTracks |= trackArticles.isEmpty();
+			all.addAll(trackArticles);
+		}
+		for (Article article : all) {
+			if (article.getHandle() != null) {
+				articlesByHandle.put(article.getHandle(), article);
+			}
+		}
+		this.articles = Collections.unmodifiableList(all);
+		this.hasEmptyTracks = emptyTracks;
+	}
+
+	/**
+	 * Returns all the {@link Article}s of the edition, i.e., its own articles
+	 * followed by the articles of each one of its tracks
+	 *
+	 * @return
+	 */
+	public List<Article> getArticles() {
+		return articles;
+	}
+
+	public int size() {
+		return articles.size();
+	}
+
+	public boolean isEmpty() {
+		return articles.isEmpty();
+	}
+
+	/**
+	 * Returns the {@link Article}s of the given {@link Track} (or the own articles
+	 * of the edition, if the edition itself is given)
+	 *
+	 * @param track
+	 * @return
+	 */
+	public List<Article> getArticles(Track track) {
+		List<Article> result = articlesByTrack.get(track);
+		if (result == null) {
+			throw new IllegalArgumentException(String.format("Track '%s' does not belong to the edition", track.getTitle()));
+		}
+		return result;
+	}
+
+	public int getArticleCount(Track track) {
+		return getArticles(track).size();
+	}
+
+	public boolean isEmpty(Track track) {
+		return getArticles(track).isEmpty();
+	}
+
+	/**
+	 * Returns whether any of the tracks of the edition has no articles (i.e., it
+	 * is a preliminaries track)
+	 *
+	 * @return
+	 */
+	public boolean hasEmptyTracks() {
+		return hasEmptyTracks;
+	}
+
+	/**
+	 * Returns the {@link Article} with the given handle, or <code>null</code> if
+	 * there is no such article in the edition
+	 *
+	 * @param handle
+	 * @return
+	 */
+	public Article getArticle(String handle) {
+		return articlesByHandle.get(handle);
+	}
+}
@@ -0,0 +1,122 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable metadata of an {@link Edition}, parsed once from the excerpt of
+ * the Wordpress post. Parts that can not be parsed are reported once, when
+ * the excerpt is parsed, and their getters throw a {@link RuntimeException}.
+ *
+ * @author agomez
+ *
+ */
+public final class EditionInfo {
+
+	private transient final static Logger logger = LoggerFactory.getLogger(EditionInfo.class);
+
+	private static final Pattern NAME = Pattern.compile("Actas de las (.*? \\(.*?\\))");
+	private static final Pattern PROCEEDINGS_NAME = Pattern.compile("(Actas de las .*? \\(.*?\\))");
+	private static final Pattern EDITORS = Pattern.compile("<p>(?<ed1>.+?)\\s+(y\\s+(?<ed2>.+?)\\s+)?\\([Ee]ds?\\.\\)");
+	private static final String LOCATION = "\\(%s\\s*\\d+\\)\\.(.*?),";
+
+	private final String title;
+	private final Date date;
+	private final String name;
+	private final String location;
+	private final String proceedingsName;
+	private final List<String> editors;
+
+	private EditionInfo(String title, Date date, String name, String location, String proceedingsName, List<String> editors) {
+		this.title = title;
+		this.date = date;
+		this.name = name;
+		this.location = location;
+		this.proceedingsName = proceedingsName;
+		this.editors = editors;
+	}
+
+	/**
+	 * Parses the {@link EditionInfo} of the given {@link Edition} from the
+	 * rendered excerpt of its post
+	 *
+	 * @param edition
+	 * @param excerpt
+	 * @return
+	 */
+	static EditionInfo parse(Edition edition, String excerpt) {
+		String title = edition.getTitle();
+		String text = excerpt.replace(' ', ' '); // Replace non-breaking spaces by regular spaces
+		String name = null;
+		String location = null;
+		String proceedingsName = null;
+		List<String> editors = null;
+
+		Matcher matcher = NAME.matcher(text);
+		if (matcher.find()) {
+			name = matcher.group(1);
+		} else {
+			logger.error("Unable to get edition name for " + title);
+		}
+		try {
+			matcher = Pattern.compile(String.format(LOCATION, edition.getConference().getAcronym())).matcher(text);
+			if (matcher.find()) {
+				location = matcher.group(1).trim();
+			} else {
+				logger.error("Unable to get edition location for " + title);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Unable to get edition location for " + title + ": " + e.getMessage());
+		}
+		matcher = PROCEEDINGS_NAME.matcher(text);
+		if (matcher.find()) {
+			proceedingsName = matcher.group(1).trim();
+		} else {
+			logger.error("Unable to get edition proceedings for " + title);
+		}
+		matcher = EDITORS.matcher(text);
+		if (matcher.find()) {
+			List<String> list = new ArrayList<>();
+			if (matcher.group("ed1") != null) list.add(matcher.group("ed1"));
+			if (matcher.group("ed2") != null) list.add(matcher.group("ed2"));
+			editors = Collections.unmodifiableList(list);
+		} else {
+			logger.error("Unable to get edition editors for " + title);
+		}
+		return new EditionInfo(title, edition.getDate(), name, location, proceedingsName, editors);
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public String getName() {
+		return require(name, "Unable to get edition name for " + title);
+	}
+
+	public String getLocation() {
+		return require(location, "Unable to get edition location for " + title);
+	}
+
+	public String getProceedingsName() {
+		return require(proceedingsName, "Unable to get edition proceedings for " + title);
+	}
+
+	public List<String> getEditors() {
+		return require(editors, "Unable to get edition editors for " + title);
+	}
+
+	private static <T> T require(T value, String message) {
+		if (value == null) {
+			throw new RuntimeException(message);
+		}
+		return value;
+	}
+}
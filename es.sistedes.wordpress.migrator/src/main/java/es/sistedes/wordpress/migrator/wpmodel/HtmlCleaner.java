@@ -0,0 +1,362 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * Cleans up the HTML contents of the legacy Wordpress site. The HTML fragment
+ * is parsed once, all the rules are applied to the DOM, and the result is
+ * serialized once (without pretty printing, so that the original layout is
+ * kept).
+ *
+ * Cleaned fragments are cached by the ID of the post they come from, together
+ * with the fragment they were cleaned from, so that they are cleaned again if
+ * a different fragment is given for the same ID.
+ *
+ * @author agomez
+ *
+ */
+public final class HtmlCleaner {
+
+	private static final Pattern BLANK_LINES = Pattern.compile("\n\\s*\n");
+	private static final Pattern SPACES = Pattern.compile(" {2,}");
+
+	private final List<Consumer<Element>> rules;
+	private final Map<String, Map.Entry<String, String>> cache = new ConcurrentHashMap<>();
+
+	@SafeVarargs
+	public HtmlCleaner(Consumer<Element>... rules) {
+		this.rules = new ArrayList<>();
+		for (Consumer<Element> rule : rules) {
+			this.rules.add(rule);
+		}
+	}
+
+	/**
+	 * Cleans the given HTML fragment of the post with the given <code>id</code>,
+	 * or returns the cached result if the same fragment was already cleaned
+	 *
+	 * @param id
+	 * @param html
+	 * @return
+	 */
+	public String clean(String id, String html) {
+		Map.Entry<String, String> cached = cache.get(id);
+		if (cached == null || !cached.getKey().equals(html)) {
+			cached = new AbstractMap.SimpleImmutableEntry<>(html, clean(html));
+			cache.put(id, cached);
+		}
+		return cached.getValue();
+	}
+
+	/**
+	 * Cleans the given HTML fragment
+	 *
+	 * @param html
+	 * @return
+	 */
+	public String clean(String html) {
+		Document document = Jsoup.parseBodyFragment(html);
+		document.outputSettings().prettyPrint(false);
+		for (Consumer<Element> rule : rules) {
+			rule.accept(document.body());
+		}
+		return document.body().html().trim();
+	}
+
+	/**
+	 * Removes the elements matching the given CSS query
+	 *
+	 * @param cssQuery
+	 * @return
+	 */
+	public static Consumer<Element> remove(String cssQuery) {
+		return root -> root.select(cssQuery).remove();
+	}
+
+	/**
+	 * Removes the first element matching the given CSS query together with
+	 * everything that follows it, i.e., truncates the fragment right before
+	 * that element
+	 *
+	 * @param cssQuery
+	 * @return
+	 */
+	public static Consumer<Element> truncate(String cssQuery) {
+		return root -> {
+			Element first = root.selectFirst(cssQuery);
+			if (first == null || first == root) {
+				return;
+			}
+			for (Node node = first; node != root; node = node.parent()) {
+				while (node.nextSibling() != null) {
+					node.nextSibling().remove();
+				}
+			}
+			first.remove();
+		};
+	}
+
+	/**
+	 * Removes the elements matching the given CSS query that also satisfy the
+	 * given {@link Predicate}
+	 *
+	 * @param cssQuery
+	 * @param predicate
+	 * @return
+	 */
+	public static Consumer<Element> remove(String cssQuery, Predicate<Element> predicate) {
+		return root -> root.select(cssQuery).stream()
+				.filter(element -> element != root)
+				.filter(predicate)
+				.forEach(Element::remove);
+	}
+
+	/**
+	 * Removes the elements without attributes that have no contents. If
+	 * <code>blank</code> is <code>true</code>, elements with only whitespace are
+	 * also removed, together with the whitespace that follows them. Elements that
+	 * only become empty after removing their children are kept.
+	 *
+	 * @param blank
+	 * @return
+	 */
+	public static Consumer<Element> removeEmpty(boolean blank) {
+		return root -> root.select("*").stream()
+				.filter(element -> element != root && element.attributes().size() == 0)
+				.filter(element -> !element.tag().isSelfClosing() && element.children().isEmpty())
+				.filter(element -> blank ? element.wholeText().trim().isEmpty() : element.childNodeSize() == 0)
+				.forEach(element -> {
+					if (blank && element.nextSibling() instanceof TextNode) {
+						TextNode next = (TextNode) element.nextSibling();
+						next.text(StringUtils.stripStart(next.getWholeText(), null));
+					}
+					element.remove();
+				});
+	}
+
+	/**
+	 * Removes the <code>&lt;p&gt;&amp;nbsp;&lt;/p&gt;</code> paragraphs
+	 *
+	 * @return
+	 */
+	public static Consumer<Element> removeNbspParagraphs() {
+		return remove("p", element -> element.attributes().size() == 0 && element.childNodeSize() == 1
+				&& "\u00a0".equals(element.wholeText()));
+	}
+
+	/**
+	 * Removes the paragraphs whose only child is an element matching
+	 * <code>cssQuery</code> whose text contains <code>pattern</code>
+	 *
+	 * @param cssQuery
+	 * @param pattern
+	 * @return
+	 */
+	public static Consumer<Element> removeParagraphs(String cssQuery, Pattern pattern) {
+		return remove("p", element -> getOnlyChild(element) != null && getOnlyChild(element).is(cssQuery)
+				&& pattern.matcher(element.wholeText()).find());
+	}
+
+	/**
+	 * Removes the lists all of whose items satisfy the given {@link Predicate}
+	 *
+	 * @param cssQuery
+	 * @param item
+	 * @return
+	 */
+	public static Consumer<Element> removeLists(String cssQuery, Predicate<Element> item) {
+		return remove(cssQuery, element -> getOnlyText(element).isEmpty() && !element.children().isEmpty()
+				&& element.children().stream().allMatch(li -> li.is("li") && item.test(li)));
+	}
+
+	/**
+	 * Removes the blocks delimited by the <code>&lt;!-- [begin:name] --&gt;</code>
+	 * and <code>&lt;!-- [end:name] --&gt;</code> comments (both included)
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static Consumer<Element> removeBlock(String name) {
+		String begin = "[begin:" + name + "]";
+		String end = "[end:" + name + "]";
+		return root -> {
+			for (Comment comment : findComments(root, begin)) {
+				List<Node> block = new ArrayList<>();
+				boolean closed = false;
+				for (Node node = comment; node != null && !closed; node = node.nextSibling()) {
+					block.add(node);
+					closed = node instanceof Comment && end.equals(((Comment) node).getData().trim());
+				}
+				if (closed) {
+					block.forEach(Node::remove);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Removes the given literal <code>text</code> from all the text nodes
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static Consumer<Element> removeText(String text) {
+		return replaceText(t -> t.replace(text, ""));
+	}
+
+	/**
+	 * Replaces the non-breaking spaces by regular spaces and collapses runs of
+	 * spaces in all the text nodes
+	 *
+	 * @return
+	 */
+	public static Consumer<Element> collapseSpaces() {
+		return replaceText(t -> SPACES.matcher(t.replace('\u00a0', ' ')).replaceAll(" "));
+	}
+
+	/**
+	 * Collapses the runs of lines that only contain whitespace into a single
+	 * empty line in all the text nodes
+	 *
+	 * @return
+	 */
+	public static Consumer<Element> clearBlankLines() {
+		return replaceText(t -> BLANK_LINES.matcher(t).replaceAll("\n\n"));
+	}
+
+	/**
+	 * Removes the given attribute from all the elements
+	 *
+	 * @param attribute
+	 * @return
+	 */
+	public static Consumer<Element> removeAttribute(String attribute) {
+		return root -> root.getAllElements().removeAttr(attribute);
+	}
+
+	/**
+	 * Renames the elements without attributes matching the given CSS query
+	 *
+	 * @param cssQuery
+	 * @param tagName
+	 * @return
+	 */
+	public static Consumer<Element> rename(String cssQuery, String tagName) {
+		return root -> root.select(cssQuery).stream()
+				.filter(element -> element.attributes().size() == 0)
+				.forEach(element -> element.tagName(tagName));
+	}
+
+	/**
+	 * Replaces the paragraphs whose only child is an element matching
+	 * <code>cssQuery</code> by an element named <code>tagName</code> with the
+	 * contents of that child
+	 *
+	 * @param cssQuery
+	 * @param tagName
+	 * @return
+	 */
+	public static Consumer<Element> paragraphsToHeadings(String cssQuery, String tagName) {
+		return root -> root.select("p").stream()
+				.filter(element -> element.attributes().size() == 0)
+				.filter(element -> getOnlyChild(element) != null && getOnlyChild(element).is(cssQuery))
+				.forEach(element -> {
+					List<Node> contents = new ArrayList<>(getOnlyChild(element).childNodes());
+					element.empty();
+					element.tagName(tagName);
+					contents.forEach(element::appendChild);
+				});
+	}
+
+	/**
+	 * Unwraps the elements matching the given CSS query (i.e., replaces them by
+	 * their contents)
+	 *
+	 * @param cssQuery
+	 * @return
+	 */
+	public static Consumer<Element> unwrap(String cssQuery) {
+		return root -> root.select(cssQuery).unwrap();
+	}
+
+	private static Consumer<Element> replaceText(UnaryOperator<String> replacement) {
+		return root -> NodeTraversor.traverse(new NodeVisitor() {
+			@Override
+			public void head(Node node, int depth) {
+				if (node instanceof TextNode) {
+					TextNode textNode = (TextNode) node;
+					// Removed elements may have left several adjacent text nodes,
+					// which are joined to be replaced as a whole
+					while (textNode.nextSibling() instanceof TextNode) {
+						TextNode next = (TextNode) textNode.nextSibling();
+						textNode.text(textNode.getWholeText() + next.getWholeText());
+						next.remove();
+					}
+					String text = textNode.getWholeText();
+					String replaced = replacement.apply(text);
+					if (!replaced.equals(text)) {
+						textNode.text(replaced);
+					}
+				}
+			}
+
+			@Override
+			public void tail(Node node, int depth) {
+			}
+		}, root);
+	}
+
+	private static List<Comment> findComments(Element root, String data) {
+		List<Comment> comments = new ArrayList<>();
+		NodeTraversor.traverse(new NodeVisitor() {
+			@Override
+			public void head(Node node, int depth) {
+				if (node instanceof Comment && data.equals(((Comment) node).getData().trim())) {
+					comments.add((Comment) node);
+				}
+			}
+
+			@Override
+			public void tail(Node node, int depth) {
+			}
+		}, root);
+		return comments;
+	}
+
+	/**
+	 * Returns the only child element of the given {@link Element} if it has no
+	 * other contents than whitespace, or <code>null</code> otherwise
+	 */
+	private static Element getOnlyChild(Element element) {
+		if (element.children().size() == 1 && getOnlyText(element).isEmpty()) {
+			return element.child(0);
+		}
+		return null;
+	}
+
+	private static String getOnlyText(Element element) {
+		StringBuilder builder = new StringBuilder();
+		for (TextNode text : element.textNodes()) {
+			builder.append(text.getWholeText());
+		}
+		return builder.toString().trim();
+	}
+}
@@ -1,7 +1,17 @@
 package es.sistedes.wordpress.migrator.wpmodel;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
+import com.google.gson.Gson;
+
+import es.sistedes.wordpress.migrator.DelayedStreamOpener;
+
 public class Library {
 
 	// BEGIN: JSON fields
@@ -22,11 +32,52 @@ public class Library {
 	}
 	
 	public String getDescription() {
-		return content.get("rendered");
+		return getContent().get("rendered");
+	}
+	
+	/**
+	 * Returns the contents of this library, fetching them if they were not
+	 * requested when listing it
+	 * 
+	 * @return
+	 */
+	protected synchronized Map<String, String> getContent() {
+		if (content == null) {
+			try {
+				URL url = new URL(getCollectionUrl() + "/" + getId() + String.format(WorpressEndpoints.FIELDS_QUERY, "content"));
+				Reader reader = new InputStreamReader(DelayedStreamOpener.open(url), StandardCharsets.UTF_8);
+				if (isXmlEscaped()) {
+					reader = new XmlUnescapingReader(reader);
+				}
+				content = new Gson().fromJson(reader, Library.class).content;
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return content;
+	}
+	
+	/**
+	 * Whether the JSON of this kind of library must be XML-unescaped before
+	 * parsing it
+	 * 
+	 * @return
+	 */
+	protected boolean isXmlEscaped() {
+		return false;
 	}
 
 	public String getCollectionUrl() {
-		return _links.get("collection")[0].get("href");
+		if (_links != null && _links.containsKey("collection")) {
+			return _links.get("collection")[0].get("href");
+		}
+		// Links may have been left out by a _fields projection
+		try {
+			URL url = new URL(link);
+			return new URL(url.getProtocol(), url.getHost(), url.getPort(), WorpressEndpoints.LIBRARY_ENDPOINT).toString();
+		} catch (MalformedURLException e) {
+			throw new RuntimeException(e);
+		}
 	}
 	
 	public String getLink() {
@@ -0,0 +1,258 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only dictionary of (uppercase) names and their frequencies, stored in a
+ * compact binary form: the keys are kept as UTF-8 bytes sorted in unsigned
+ * byte order, so that lookups are binary searches over the buffer, and no
+ * {@link String} or {@link Integer} is allocated per entry.
+ *
+ * The binary files are generated from the CSV registries at build time (see
+ * {@link #main(String[])}), and are memory-mapped at runtime when found in the
+ * file system (or read at once when packaged in a jar). If a binary file is
+ * missing, the dictionary is built from the CSV registries instead.
+ *
+ * Binary layout (big endian): the {@link #MAGIC} number, the number of entries
+ * <code>n</code>, <code>n</code> frequencies, <code>n + 1</code> offsets of the
+ * keys (relative to the start of the keys section), and the keys.
+ *
+ * @author agomez
+ *
+ */
+public final class NameDictionary {
+
+	private static final Logger LOGGER = Logger.getLogger(NameDictionary.class.getCanonicalName());
+
+	static final String MALE_NAMES_FILE = "/male-names.csv";
+	static final String FEMALE_NAMES_FILE = "/female-names.csv";
+	static final String SURNAMES_FILE = "/surnames.csv";
+	static final String NAMES_DICTIONARY = "/names.dict";
+	static final String SURNAMES_DICTIONARY = "/surnames.dict";
+
+	private static final int MAGIC = 0x4E444331; // "NDC1"
+	private static final int HEADER_SIZE = 8;
+
+	private final ByteBuffer buffer;
+	private final int size;
+	private final int offsets;
+	private final int keys;
+
+	private NameDictionary(ByteBuffer buffer) {
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a name dictionary");
+		}
+		this.buffer = buffer;
+		this.size = buffer.getInt(4);
+		this.offsets = HEADER_SIZE + size * 4;
+		this.keys = offsets + (size + 1) * 4;
+	}
+
+	/**
+	 * Returns the dictionary of names (male names take precedence over female
+	 * names)
+	 *
+	 * @return
+	 */
+	public static NameDictionary loadNames() {
+		return load(NAMES_DICTIONARY, true, MALE_NAMES_FILE, FEMALE_NAMES_FILE);
+	}
+
+	/**
+	 * Returns the dictionary of surnames
+	 *
+	 * @return
+	 */
+	public static NameDictionary loadSurnames() {
+		return load(SURNAMES_DICTIONARY, false, SURNAMES_FILE);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean containsKey(String key) {
+		return indexOf(key) >= 0;
+	}
+
+	public int getOrDefault(String key, int defaultValue) {
+		int index = indexOf(key);
+		return index >= 0 ? buffer.getInt(HEADER_SIZE + index * 4) : defaultValue;
+	}
+
+	private int indexOf(String key) {
+		if (key == null) {
+			return -1;
+		}
+		byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareKey(mid, bytes);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	private int compareKey(int index, byte[] bytes) {
+		int start = keys + buffer.getInt(offsets + index * 4);
+		int length = keys + buffer.getInt(offsets + (index + 1) * 4) - start;
+		for (int i = 0, n = Math.min(length, bytes.length); i < n; i++) {
+			int cmp = (buffer.get(start + i) & 0xFF) - (bytes[i] & 0xFF);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return length - bytes.length;
+	}
+
+	private static NameDictionary load(String dictionary, boolean firstWins, String... files) {
+		long start = System.nanoTime();
+		NameDictionary result;
+		try {
+			result = new NameDictionary(map(dictionary));
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, MessageFormat.format("Unable to load ''{0}'', falling back to the CSV registries", dictionary.replaceFirst("/", "")));
+			Map<String, Integer> entries = new HashMap<>();
+			for (String file : files) {
+				try {
+					parse(entries, firstWins, file);
+				} catch (Exception ex) {
+					LOGGER.log(Level.SEVERE, String.format("Unable to load '%s' into names registry", file.replaceFirst("/", "")));
+				}
+			}
+			result = new NameDictionary(ByteBuffer.wrap(toBytes(entries)));
+		}
+		LOGGER.log(Level.FINE, MessageFormat.format("Loaded {0} entries from ''{1}'' in {2,number,#.##} ms", result.size, dictionary.replaceFirst("/", ""),
+				(System.nanoTime() - start) / 1e6));
+		return result;
+	}
+
+	private static ByteBuffer map(String resource) throws IOException, URISyntaxException {
+		URL url = NameDictionary.class.getResource(resource);
+		if (url == null) {
+			throw new IOException("Resource not found: " + resource);
+		}
+		if ("file".equals(url.getProtocol())) {
+			try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+		try (InputStream in = url.openStream()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int read;
+			while ((read = in.read(chunk)) != -1) {
+				out.write(chunk, 0, read);
+			}
+			return ByteBuffer.wrap(out.toByteArray());
+		}
+	}
+
+	private static void parse(Map<String, Integer> entries, boolean firstWins, String file) throws IOException {
+		InputStream in = NameDictionary.class.getResourceAsStream(file);
+		if (in == null) {
+			throw new IOException("Resource not found: " + file);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().startsWith("#")) continue;
+				String[] fields = line.split(",");
+				if (fields.length >= 2) {
+					if (firstWins) {
+						entries.putIfAbsent(fields[0].trim(), Integer.valueOf(fields[1].trim()));
+					} else {
+						entries.put(fields[0].trim(), Integer.valueOf(fields[1].trim()));
+					}
+				}
+			}
+		}
+	}
+
+	private static byte[] toBytes(Map<String, Integer> entries) {
+		byte[][] sorted = new byte[entries.size()][];
+		int i = 0;
+		int length = 0;
+		for (String key : entries.keySet()) {
+			sorted[i] = key.getBytes(StandardCharsets.UTF_8);
+			length += sorted[i++].length;
+		}
+		Arrays.sort(sorted, NameDictionary::compare);
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sorted.length * 8 + 4 + length);
+		buffer.putInt(MAGIC).putInt(sorted.length);
+		for (byte[] key : sorted) {
+			buffer.putInt(entries.get(new String(key, StandardCharsets.UTF_8)));
+		}
+		int offset = 0;
+		for (byte[] key : sorted) {
+			buffer.putInt(offset);
+			offset += key.length;
+		}
+		buffer.putInt(offset);
+		for (byte[] key : sorted) {
+			buffer.put(key);
+		}
+		return buffer.array();
+	}
+
+	private static int compare(byte[] b1, byte[] b2) {
+		for (int i = 0, n = Math.min(b1.length, b2.length); i < n; i++) {
+			int cmp = (b1[i] & 0xFF) - (b2[i] & 0xFF);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return b1.length - b2.length;
+	}
+
+	/**
+	 * Generates the binary dictionaries from the CSV registries into the given
+	 * directory. Invoked at build time, in the <code>process-classes</code>
+	 * phase.
+	 *
+	 * @param args The output directory
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			throw new IllegalArgumentException("Usage: NameDictionary <output directory>");
+		}
+		File dir = new File(args[0]);
+		Map<String, Integer> names = new HashMap<>();
+		parse(names, true, MALE_NAMES_FILE);
+		parse(names, true, FEMALE_NAMES_FILE);
+		Files.write(new File(dir, NAMES_DICTIONARY.replaceFirst("/", "")).toPath(), toBytes(names));
+		Map<String, Integer> surnames = new HashMap<>();
+		parse(surnames, false, SURNAMES_FILE);
+		Files.write(new File(dir, SURNAMES_DICTIONARY.replaceFirst("/", "")).toPath(), toBytes(surnames));
+	}
+}
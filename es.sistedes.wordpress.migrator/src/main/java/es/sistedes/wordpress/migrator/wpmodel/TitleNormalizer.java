@@ -0,0 +1,121 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the annotations (e.g., <code>(Tutorial)</code>, <code>(Trabajo
+ * relevante)</code>) that were added to the titles of the papers in the
+ * legacy Wordpress site.
+ *
+ * Rules are compiled once into two combined, anchored patterns: one for the
+ * parenthesized annotations at the end of the title, and another one for the
+ * annotations at its beginning. Each rule is an alternative in its own
+ * capturing group, so that a single match finds both the clean title and the
+ * rule that fired. Suffix rules are tried before prefix rules, and within each
+ * pattern, the first alternative that matches wins.
+ *
+ * @author agomez
+ *
+ */
+final class TitleNormalizer {
+
+	// @formatter:off
+	private static final String[][] SUFFIX_RULES = {
+			{ "tool-demo", "(?:[Tt]ool\\s*)?[Dd]emo(?:straci[oó]n)?" },
+			{ "tutorial", "[Tt]utorial" },
+			{ "work-in-progress", "[Ww]ork in [Pp]rogress" },
+			{ "trabajo-en-progreso", "[Tt]rabajo en [Pp]rogreso" },
+			{ "trabajo-original", "[Tt]rabajo [Oo]riginal" },
+			{ "resumen", "[Rr]esumen" },
+			{ "abstract", "[Aa]bstract" },
+			{ "summary", "[Ss]ummary" },
+			{ "extended-abstract", "[Ee]xtended [Aa]bstract" },
+			{ "relevante-ya-publicado", "RELEVANTE YA PUBLICADO" },
+			{ "ya-publicado", "YA PUBLICADO" },
+			{ "trabajo-ya-publicado", "Trabajo ya publicado" },
+			{ "articulo-relevante", "[Aa]rtículo [Rr]elevante" },
+			{ "trabajo-alto-nivel", "Trabajo de alto nivel" } };
+
+	private static final String[][] PREFIX_RULES = {
+			{ "prefix-articulo-relevante", "\\([Aa]rtículo [Rr]elevante\\)" },
+			{ "prefix-trabajo-relevante", "\\s*[Tt]rabajo [Rr]elevante\\s*\\W*" },
+			{ "prefix-trabajo-relevante-parenthesized", "\\([Tt]rabajo [Rr]elevante\\)" },
+			{ "prefix-articulo-relevante-uppercase", "ART[IÍ]CULO RELEVANTE:" },
+			{ "prefix-extended-abstract", "[Ee]xtended [Aa]bstract of" } };
+	// @formatter:on
+
+	// The title is the first group, followed by a group per rule
+	private static final Pattern SUFFIXES = Pattern.compile("^«?(.*?)»?\\s*\\((?:" + alternatives(SUFFIX_RULES) + ")\\)\\s*$");
+	// A group per rule, followed by the title
+	private static final Pattern PREFIXES = Pattern.compile("^(?:" + alternatives(PREFIX_RULES) + ")\\s*«?(.*?)»?\\s*$");
+
+	/**
+	 * The result of normalizing a title
+	 *
+	 * @author agomez
+	 *
+	 */
+	static class Result {
+		private final String rule;
+		private final String title;
+
+		private Result(String rule, String title) {
+			this.rule = rule;
+			this.title = title;
+		}
+
+		/**
+		 * Returns the name of the rule that matched the title, or <code>null</code>
+		 * if the title was left unchanged
+		 */
+		String getRule() {
+			return rule;
+		}
+
+		String getTitle() {
+			return title;
+		}
+
+		boolean isChanged() {
+			return rule != null;
+		}
+	}
+
+	private TitleNormalizer() {
+	}
+
+	private static String alternatives(String[][] rules) {
+		return Arrays.stream(rules).map(rule -> "(" + rule[1] + ")").collect(Collectors.joining("|"));
+	}
+
+	/**
+	 * Normalizes the given (already trimmed) title
+	 *
+	 * @param title
+	 * @return
+	 */
+	static Result normalize(String title) {
+		if (title.endsWith(")")) {
+			Matcher matcher = SUFFIXES.matcher(title);
+			if (matcher.matches()) {
+				return new Result(SUFFIX_RULES[firstMatchedGroup(matcher, 2) - 2][0], matcher.group(1));
+			}
+		}
+		Matcher matcher = PREFIXES.matcher(title);
+		if (matcher.matches()) {
+			return new Result(PREFIX_RULES[firstMatchedGroup(matcher, 1) - 1][0], matcher.group(PREFIX_RULES.length + 1));
+		}
+		return new Result(null, title);
+	}
+
+	private static int firstMatchedGroup(Matcher matcher, int from) {
+		int group = from;
+		while (matcher.start(group) < 0) {
+			group++;
+		}
+		return group;
+	}
+}
@@ -3,21 +3,28 @@ package es.sistedes.wordpress.migrator.wpmodel;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
-
-import es.sistedes.wordpress.migrator.DelayedStreamOpener;
+import com.google.gson.JsonParseException;
 
 public class Track extends Library {
 	
+	private transient final static Logger logger = LoggerFactory.getLogger(Track.class);
+	
 	// BEGIN: JSON fields
 	protected Map<String, String> articulos;
 	// END: JSON fields
@@ -33,23 +40,149 @@ public class Track extends Library {
 		this.edition = edition;
 	}
 	
-	public List<Article> getArticles() throws IOException {
+	@Override
+	protected boolean isXmlEscaped() {
+		return true;
+	}
+	
+	public synchronized List<Article> getArticles() throws IOException {
 		if (articles == null) {
-			this.articles = new ArrayList<>();
-			try {
-				for (String id : articulos.values()) {
-					URL url = new URL(id);
-					this.articles.add(new Gson().fromJson(
-							StringEscapeUtils.unescapeXml(
-									IOUtils.toString(DelayedStreamOpener.open(url), StandardCharsets.UTF_8)), Article.class));
-					this.articles.forEach(a -> a.setTrack(this));
+			setArticles(fetchArticles(getArticleUrls()));
+		}
+		return articles;
+	}
+	
+	synchronized boolean isArticlesLoaded() {
+		return articles != null;
+	}
+	
+	synchronized void setArticles(List<Article> articles) {
+		if (this.articles == null) {
+			articles.forEach(a -> a.setTrack(this));
+			this.articles = Collections.unmodifiableList(new ArrayList<>(articles));
+		}
+	}
+	
+	List<URL> getArticleUrls() {
+		List<URL> urls = new ArrayList<>();
+		try {
+			for (String id : articulos.values()) {
+				urls.add(new URL(id));
+			}
+		} catch (MalformedURLException e) {
+			// Should not happen...
+			throw new RuntimeException(e);
+		}
+		return urls;
+	}
+	
+	/**
+	 * Fetches the articles with the given {@link URL}s. Articles are requested in
+	 * batches of up to {@link WorpressEndpoints#MAX_PER_PAGE} using
+	 * <code>include=</code> queries on their collection endpoint, and those that
+	 * are not returned by the batched queries are fetched one by one. The
+	 * result keeps the order of the given <code>urls</code>.
+	 * 
+	 * @param urls
+	 * @return
+	 * @throws IOException
+	 */
+	static List<Article> fetchArticles(List<URL> urls) throws IOException {
+		Gson gson = new Gson();
+		Map<URL, String> ids = new HashMap<>();
+		Map<String, Set<String>> idsByCollection = new LinkedHashMap<>();
+		for (URL url : urls) {
+			int index = url.getPath().lastIndexOf('/');
+			String id = url.getPath().substring(index + 1);
+			if (url.getQuery() == null && StringUtils.isNumeric(id)) {
+				String collection = new URL(url.getProtocol(), url.getHost(), url.getPort(), url.getPath().substring(0, index)).toString();
+				idsByCollection.computeIfAbsent(collection, c -> new LinkedHashSet<>()).add(id);
+				ids.put(url, id);
+			}
+		}
+		List<URL> batches = new ArrayList<>();
+		for (Entry<String, Set<String>> entry : idsByCollection.entrySet()) {
+			List<String> collectionIds = new ArrayList<>(entry.getValue());
+			for (int i = 0; i < collectionIds.size(); i += WorpressEndpoints.MAX_PER_PAGE) {
+				String include = String.join(",", collectionIds.subList(i, Math.min(i + WorpressEndpoints.MAX_PER_PAGE, collectionIds.size())));
+				batches.add(new URL(entry.getKey() + String.format(WorpressEndpoints.INCLUDE_QUERY, include) + "&" + WorpressEndpoints.EMBED_TERMS_PARAM));
+			}
+		}
+		Map<String, Article> byId = new HashMap<>();
+		try {
+			for (Article[] batch : Crawler.fetchAll(batches, reader -> gson.fromJson(new XmlUnescapingReader(reader), Article[].class))) {
+				for (Article article : batch) {
+					byId.put(article.getId(), article);
 				}
-			} catch (MalformedURLException e) {
-				// Should not happen...
-				new RuntimeException(e);
+			}
+		} catch (IOException | JsonParseException e) {
+			logger.warn("[!TRACK] Unable to fetch articles in batch, fetching them one by one: " + e.getLocalizedMessage());
+			byId.clear();
+		}
+		List<URL> missing = urls.stream().filter(url -> !byId.containsKey(ids.get(url))).distinct().collect(Collectors.toList());
+		if (!byId.isEmpty() && !missing.isEmpty()) {
+			logger.warn("[!TRACK] " + missing.size() + " article(s) not returned in batch, fetching them one by one");
+		}
+		Map<URL, Article> byUrl = new HashMap<>();
+		List<URL> missingEmbedded = new ArrayList<>();
+		for (URL url : missing) {
+			missingEmbedded.add(url.getQuery() == null ? new URL(url + "?" + WorpressEndpoints.EMBED_TERMS_PARAM) : url);
+		}
+		List<Article> fetched = Crawler.fetchAll(missingEmbedded, reader -> gson.fromJson(new XmlUnescapingReader(reader), Article.class));
+		for (int i = 0; i < missing.size(); i++) {
+			byUrl.put(missing.get(i), fetched.get(i));
+		}
+		List<Article> result = new ArrayList<>(urls.size());
+		for (URL url : urls) {
+			result.add(byUrl.containsKey(url) ? byUrl.get(url) : byId.get(ids.get(url)));
+		}
+		fetchMedia(result);
+		return result;
+	}
+	
+	/**
+	 * Resolves the PDF files (Wordpress media) of the given articles using
+	 * batched <code>include=</code> queries, so that
+	 * {@link Article#getDocumentUrl()} does not need to request them one by one
+	 * 
+	 * @param articles
+	 */
+	private static void fetchMedia(List<Article> articles) {
+		Map<String, Set<String>> idsByEndpoint = new LinkedHashMap<>();
+		for (Article article : articles) {
+			String mediaId = article.getMediaId();
+			if (mediaId != null) {
+				try {
+					URL postUrl = new URL(article.getLink());
+					String endpoint = new URL(postUrl.getProtocol(), postUrl.getHost(), postUrl.getPort(), WorpressEndpoints.MEDIA_ENDPOINT).toString();
+					idsByEndpoint.computeIfAbsent(endpoint, e -> new LinkedHashSet<>()).add(mediaId);
+				} catch (MalformedURLException e) {
+					// Will be retried (and reported) when the document URL is requested
+				}
+			}
+		}
+		Map<String, Media> media = new HashMap<>();
+		try {
+			List<URL> batches = new ArrayList<>();
+			for (Entry<String, Set<String>> entry : idsByEndpoint.entrySet()) {
+				List<String> mediaIds = new ArrayList<>(entry.getValue());
+				for (int i = 0; i < mediaIds.size(); i += WorpressEndpoints.MAX_PER_PAGE) {
+					String include = String.join(",", mediaIds.subList(i, Math.min(i + WorpressEndpoints.MAX_PER_PAGE, mediaIds.size())));
+					batches.add(new URL(entry.getKey() + String.format(WorpressEndpoints.INCLUDE_QUERY, include)));
+				}
+			}
+			for (Media[] batch : Crawler.fetchAll(batches, reader -> new Gson().fromJson(reader, Media[].class))) {
+				for (Media m : batch) {
+					media.put(m.getId(), m);
+				}
+			}
+		} catch (IOException | JsonParseException e) {
+			logger.warn("[!TRACK] Unable to fetch media in batch, they will be fetched one by one: " + e.getLocalizedMessage());
+		}
+		for (Article article : articles) {
+			if (article.getMediaId() != null && media.containsKey(article.getMediaId())) {
+				article.setMedia(media.get(article.getMediaId()));
 			}
 		}
-		articles = Collections.unmodifiableList(articles);
-		return articles;
 	}
 }
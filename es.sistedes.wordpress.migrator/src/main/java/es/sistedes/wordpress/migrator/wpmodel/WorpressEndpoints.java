@@ -4,7 +4,20 @@ final class WorpressEndpoints {
 	
 	static final String LIBRARY_ENDPOINT = "/wp-json/wp/v2/biblioteca";
 	static final String LIBRARY_PARENT_QUERY = "?parent=%s&per_page=100";
+	static final String FIELDS_QUERY = "?_fields=%s";
+	static final String FIELDS_PARAM = "&_fields=%s";
+	static final String PAGE_PARAM = "&page=%d";
+	static final String TOTAL_PAGES_HEADER = "X-WP-TotalPages";
+	// Fields read by each model class when listing the children of a library;
+	// content is only fetched on demand (see Library#getDescription())
+	static final String LIBRARY_FIELDS = "id,link,title,_links";
+	static final String TRACK_FIELDS = LIBRARY_FIELDS + ",articulos";
+	static final String EDITION_FIELDS = TRACK_FIELDS + ",excerpt,date";
 	static final String ARTICLE_ENDPOINT = "/wp-json/wp/v2/articulo/%s";
+	static final String MEDIA_ENDPOINT = "/wp-json/wp/v2/media";
+	static final String INCLUDE_QUERY = "?include=%s&per_page=100";
+	static final String EMBED_TERMS_PARAM = "_embed=wp:term";
+	static final int MAX_PER_PAGE = 100;
 
 	private WorpressEndpoints() {
 	}
@@ -0,0 +1,226 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * A {@link Reader} that unescapes XML entities on the fly, so that Wordpress
+ * payloads can be parsed as a stream instead of being read as a whole
+ * {@link String} and copied by {@link StringEscapeUtils#unescapeXml(String)}.
+ *
+ * It produces the same output as {@link StringEscapeUtils#unescapeXml(String)}:
+ * the five predefined XML entities and decimal/hexadecimal numeric entities
+ * (which must be terminated by a semicolon) are unescaped, and anything else
+ * is copied unchanged. Unescaped characters are never scanned again. The only
+ * difference are numeric entities out of the Unicode range, which
+ * {@link StringEscapeUtils#unescapeXml(String)} rejects with an
+ * {@link IllegalArgumentException}, and which are copied unchanged here.
+ *
+ * @author agomez
+ *
+ */
+public class XmlUnescapingReader extends FilterReader {
+
+	private static final String[][] ENTITIES = {
+			{ "&quot;", "\"" },
+			{ "&amp;", "&" },
+			{ "&lt;", "<" },
+			{ "&gt;", ">" },
+			{ "&apos;", "'" } };
+
+	// Enough for the named entities and any unpadded numeric entity (longer,
+	// zero-padded, numeric entities are read on demand)
+	private static final int MAX_ENTITY_LENGTH = 32;
+	private static final int BUFFER_SIZE = 8192;
+
+	private char[] buffer = new char[BUFFER_SIZE + MAX_ENTITY_LENGTH];
+	private int pos;
+	private int limit;
+	private boolean eof;
+
+	// Pending output of the last unescaped entity (up to a surrogate pair)
+	private final char[] pending = new char[2];
+	private int pendingPos;
+	private int pendingLength;
+
+	public XmlUnescapingReader(Reader in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		char[] c = new char[1];
+		return read(c, 0, 1) == -1 ? -1 : c[0];
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		int n = 0;
+		while (n < len) {
+			if (pendingPos < pendingLength) {
+				cbuf[off + n++] = pending[pendingPos++];
+				continue;
+			}
+			if (pos >= limit && !fill(1)) {
+				break;
+			}
+			if (buffer[pos] != '&') {
+				// Copy everything up to the next entity candidate at once
+				int end = pos;
+				int max = Math.min(limit, pos + len - n);
+				while (end < max && buffer[end] != '&') {
+					end++;
+				}
+				System.arraycopy(buffer, pos, cbuf, off + n, end - pos);
+				n += end - pos;
+				pos = end;
+				continue;
+			}
+			if (limit - pos < MAX_ENTITY_LENGTH) {
+				fill(MAX_ENTITY_LENGTH);
+			}
+			int consumed = unescape();
+			if (consumed == 0) {
+				cbuf[off + n++] = '&';
+				pos++;
+			} else {
+				pos += consumed;
+			}
+		}
+		return n == 0 && len > 0 ? -1 : n;
+	}
+
+	/**
+	 * Tries to unescape the entity starting at {@link #pos}, leaving the result in
+	 * {@link #pending}
+	 *
+	 * @return The number of chars consumed, or 0 if there is no valid entity
+	 * @throws IOException
+	 */
+	private int unescape() throws IOException {
+		for (String[] entity : ENTITIES) {
+			if (startsWith(entity[0])) {
+				pending[0] = entity[1].charAt(0);
+				pendingPos = 0;
+				pendingLength = 1;
+				return entity[0].length();
+			}
+		}
+		if (limit - pos < 3 || buffer[pos + 1] != '#') {
+			return 0;
+		}
+		// Offsets are relative to pos, which is moved if more chars are read
+		int start = 2;
+		boolean hex = false;
+		if (buffer[pos + start] == 'x' || buffer[pos + start] == 'X') {
+			hex = true;
+			start++;
+		}
+		int end = start;
+		while (true) {
+			while (pos + end < limit && isDigit(buffer[pos + end], hex)) {
+				end++;
+			}
+			if (pos + end < limit || eof) {
+				break;
+			}
+			// Zero-padded numeric entities may go on beyond the buffer
+			fill(end + BUFFER_SIZE);
+		}
+		if (end == start || pos + end >= limit || buffer[pos + end] != ';') {
+			return 0;
+		}
+		int value;
+		try {
+			value = Integer.parseInt(new String(buffer, pos + start, end - start), hex ? 16 : 10);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+		if (!Character.isValidCodePoint(value)) {
+			return 0;
+		}
+		pendingLength = Character.toChars(value, pending, 0);
+		pendingPos = 0;
+		return end + 1;
+	}
+
+	private boolean startsWith(String entity) {
+		if (limit - pos < entity.length()) {
+			return false;
+		}
+		for (int i = 0; i < entity.length(); i++) {
+			if (buffer[pos + i] != entity.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char c, boolean hex) {
+		return (c >= '0' && c <= '9') || (hex && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')));
+	}
+
+	/**
+	 * Reads from the underlying {@link Reader} until there are at least
+	 * <code>needed</code> chars available or the end of the stream is reached
+	 *
+	 * @return Whether there is any char available
+	 */
+	private boolean fill(int needed) throws IOException {
+		if (pos > 0) {
+			System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+			limit -= pos;
+			pos = 0;
+		}
+		if (needed > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+		}
+		while (!eof && limit < needed) {
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if (read == -1) {
+				eof = true;
+			} else {
+				limit += read;
+			}
+		}
+		return limit > pos;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		char[] skipped = new char[(int) Math.min(n, BUFFER_SIZE)];
+		long total = 0;
+		while (total < n) {
+			int read = read(skipped, 0, (int) Math.min(n - total, skipped.length));
+			if (read == -1) {
+				break;
+			}
+			total += read;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		return pendingPos < pendingLength || pos < limit || in.ready();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
+	}
+}
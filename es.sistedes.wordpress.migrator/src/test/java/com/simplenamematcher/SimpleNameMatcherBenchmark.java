@@ -0,0 +1,64 @@
+package com.simplenamematcher;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares matching every name of the corpus against all the others with
+ * {@link SimpleNameMatcher} (with and without threshold, as
+ * <code>PersonIndex</code> does) against {@link LegacySimpleNameMatcher}. Run
+ * with <code>mvn -Pjmh verify -Djmh.args="SimpleNameMatcher -prof gc"</code> to
+ * also compare the allocation rates.
+ *
+ * @author agomez
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SimpleNameMatcherBenchmark {
+
+	private List<String> names;
+
+	@Setup
+	public void setup() throws IOException {
+		names = SimpleNameMatcherTest.loadNames();
+	}
+
+	@Benchmark
+	public void legacyMatcher(Blackhole blackhole) {
+		for (String name1 : names) {
+			for (String name2 : names) {
+				blackhole.consume(LegacySimpleNameMatcher.compareNamesSafe(name1, name2));
+			}
+		}
+	}
+
+	@Benchmark
+	public void simpleNameMatcher(Blackhole blackhole) {
+		for (String name1 : names) {
+			for (String name2 : names) {
+				blackhole.consume(SimpleNameMatcher.compareNamesSafe(name1, name2));
+			}
+		}
+	}
+
+	@Benchmark
+	public void simpleNameMatcherWithThreshold(Blackhole blackhole) {
+		for (String name1 : names) {
+			for (String name2 : names) {
+				blackhole.consume(SimpleNameMatcher.compareNamesSafe(name1, name2, 80));
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.simplenamematcher;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+/**
+ * Checks that {@link SimpleNameMatcher} gives the same scores (and throws the
+ * same exceptions) as {@link LegacySimpleNameMatcher} on every pair of names of
+ * the corpus and on random variations of them
+ *
+ * @author agomez
+ *
+ */
+public class SimpleNameMatcherTest {
+
+	private static final String SEPARATORS = " -‒–—―‑⁃'´.,’‘\n";
+
+	private static final double[] THRESHOLDS = { 0, 80, 100 };
+
+	@Test
+	public void testCorpus() throws IOException {
+		List<String> names = loadNames();
+		for (String name1 : names) {
+			for (String name2 : names) {
+				assertSameScores(name1, name2);
+			}
+		}
+	}
+
+	@Test
+	public void testRandomVariations() throws IOException {
+		List<String> names = loadNames();
+		Random random = new Random(2023);
+		for (int i = 0; i < 2000; i++) {
+			String name = names.get(random.nextInt(names.size()));
+			assertSameScores(name, vary(name, random));
+			assertSameScores(vary(name, random), vary(names.get(random.nextInt(names.size())), random));
+		}
+	}
+
+	@Test
+	public void testShorterNameWithMoreLetters() throws NonPermittedSymbolException {
+		// The name with more letters is shorter than the other one, which is longer
+		// than the initial size of the buffers
+		String separators = "a" + StringUtils.repeat(" -", 40);
+		assertEquals(0.0d, SimpleNameMatcher.compareNames("abcdefghij", separators), 0.0d);
+		assertEquals(0.0d, SimpleNameMatcher.compareNames(separators, "abcdefghij"), 0.0d);
+		for (int i = 0; i < 200; i++) {
+			String name = StringUtils.repeat('x', 1 + i % 20) + StringUtils.repeat(" -", i);
+			assertSameScores(name, StringUtils.repeat('x', 1 + (i + 7) % 20));
+		}
+	}
+
+	private static void assertSameScores(String name1, String name2) {
+		String pair = "[" + name1 + "] [" + name2 + "]";
+		Object expected = score(() -> LegacySimpleNameMatcher.compareNames(name1, name2));
+		assertEquals(pair, expected, score(() -> SimpleNameMatcher.compareNames(name1, name2)));
+		double safe = expected instanceof Double ? (Double) expected : 0.0d;
+		assertEquals(pair, safe, SimpleNameMatcher.compareNamesSafe(name1, name2), 0.0d);
+		for (double threshold : THRESHOLDS) {
+			assertEquals(pair + " " + threshold, score(() -> LegacySimpleNameMatcher.compareNames(name1, name2, threshold)),
+					score(() -> SimpleNameMatcher.compareNames(name1, name2, threshold)));
+			assertEquals(pair + " " + threshold, safe >= threshold ? safe : 0.0d,
+					SimpleNameMatcher.compareNamesSafe(name1, name2, threshold), 0.0d);
+		}
+	}
+
+	/**
+	 * Returns the score, or the class of the exception thrown when computing it
+	 */
+	private static Object score(Comparison comparison) {
+		try {
+			return comparison.compare();
+		} catch (Exception e) {
+			return e.getClass();
+		}
+	}
+
+	/**
+	 * Returns a copy of the given name with a few random changes: letters and
+	 * separators inserted, removed or replaced, accents removed, case changed,
+	 * runs of separators, or the surname moved to the front
+	 */
+	private static String vary(String name, Random random) {
+		StringBuilder builder = new StringBuilder(name);
+		int changes = 1 + random.nextInt(4);
+		for (int i = 0; i < changes; i++) {
+			int pos = builder.length() == 0 ? 0 : random.nextInt(builder.length());
+			switch (random.nextInt(8)) {
+			case 0:
+				builder.insert(pos, (char) ('a' + random.nextInt(26)));
+				break;
+			case 1:
+				builder.insert(pos, SEPARATORS.charAt(random.nextInt(SEPARATORS.length())));
+				break;
+			case 2:
+				if (builder.length() > 0) {
+					builder.deleteCharAt(pos);
+				}
+				break;
+			case 3:
+				if (builder.length() > 0) {
+					builder.setCharAt(pos, "áéíóúñüçÁÉÍÓÚÑ".charAt(random.nextInt(14)));
+				}
+				break;
+			case 4:
+				builder = new StringBuilder(StringUtils.stripAccents(builder.toString()));
+				break;
+			case 5:
+				builder = new StringBuilder(random.nextBoolean() ? builder.toString().toUpperCase() : builder.toString().toLowerCase());
+				break;
+			case 6:
+				builder.insert(pos, StringUtils.repeat(random.nextBoolean() ? " -" : "  ", random.nextInt(60)));
+				break;
+			default:
+				int space = builder.lastIndexOf(" ");
+				if (space > 0 && builder.indexOf(",") < 0) {
+					builder = new StringBuilder(builder.substring(space + 1) + ", " + builder.substring(0, space));
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	static List<String> loadNames() throws IOException {
+		List<String> names = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				SimpleNameMatcherTest.class.getResourceAsStream("/simplenamematcher/names.txt"), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.startsWith("#") && !line.isEmpty()) {
+					names.add(line);
+				}
+			}
+		}
+		return names;
+	}
+
+	private interface Comparison {
+		double compare() throws Exception;
+	}
+}
@@ -0,0 +1,48 @@
+package es.sistedes.wordpress.migrator.dsmodel;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import es.sistedes.wordpress.migrator.wpmodel.HtmlCleaner;
+import es.sistedes.wordpress.migrator.wpmodel.LegacyHtmlCleaners;
+
+/**
+ * Compares cleaning the largest recorded preliminaries page with
+ * {@link PreliminarsPublication#CONTENTS_CLEANER} against the expressions it
+ * replaced (see {@link LegacyHtmlCleaners}). The cache of {@link HtmlCleaner}
+ * is not used. Run with
+ * <code>mvn -Pjmh verify -Djmh.args="PreliminarsPublication"</code>.
+ *
+ * @author agomez
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PreliminarsPublicationBenchmark {
+
+	private String html;
+
+	@Setup
+	public void setup() throws IOException {
+		html = LegacyHtmlCleaners.load("/wordpress/preliminaries/indice.html");
+	}
+
+	@Benchmark
+	public String legacyExpressions() {
+		return LegacyHtmlCleaners.preliminarsContents(html);
+	}
+
+	@Benchmark
+	public String htmlCleaner() {
+		return PreliminarsPublication.CONTENTS_CLEANER.clean(html);
+	}
+}
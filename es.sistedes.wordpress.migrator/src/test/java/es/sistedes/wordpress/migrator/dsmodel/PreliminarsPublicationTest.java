@@ -0,0 +1,32 @@
+package es.sistedes.wordpress.migrator.dsmodel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import es.sistedes.wordpress.migrator.wpmodel.LegacyHtmlCleaners;
+
+/**
+ * Checks that {@link PreliminarsPublication#CONTENTS_CLEANER} gives the same
+ * contents as the expressions it replaced (see {@link LegacyHtmlCleaners}) on
+ * the recorded preliminaries pages
+ *
+ * @author agomez
+ *
+ */
+public class PreliminarsPublicationTest {
+
+	static final String[] PRELIMINARIES = { "/wordpress/preliminaries/comites.html",
+			"/wordpress/preliminaries/prefacio.html", "/wordpress/preliminaries/indice.html" };
+
+	@Test
+	public void testPreliminaries() throws IOException {
+		for (String page : PRELIMINARIES) {
+			String html = LegacyHtmlCleaners.load(page);
+			assertEquals(page, LegacyHtmlCleaners.normalize(LegacyHtmlCleaners.preliminarsContents(html)),
+					LegacyHtmlCleaners.normalize(PreliminarsPublication.CONTENTS_CLEANER.clean(html)));
+		}
+	}
+}
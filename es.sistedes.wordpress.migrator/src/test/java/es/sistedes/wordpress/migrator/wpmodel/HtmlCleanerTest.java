@@ -0,0 +1,41 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link Edition#DESCRIPTION_CLEANER} gives the same descriptions
+ * as the expressions it replaced (see {@link LegacyHtmlCleaners}) on the
+ * recorded edition pages, Bibtex reference included
+ *
+ * @author agomez
+ *
+ */
+public class HtmlCleanerTest {
+
+	static final String[] EDITIONS = { "/wordpress/editions/jisbd-2019.html", "/wordpress/editions/jcis-2018.html",
+			"/wordpress/editions/prole-2017.html" };
+
+	@Test
+	public void testEditions() throws IOException {
+		for (String page : EDITIONS) {
+			String html = LegacyHtmlCleaners.load(page);
+			String cleaned = Edition.DESCRIPTION_CLEANER.clean(html);
+			assertEquals(page, LegacyHtmlCleaners.normalize(LegacyHtmlCleaners.editionDescription(html)),
+					LegacyHtmlCleaners.normalize(cleaned));
+			assertFalse(page, cleaned.contains("citaBibtex"));
+		}
+	}
+
+	@Test
+	public void testTruncate() {
+		String html = "<p>a</p><div><p>b <a class=\"citaBibtex\">c</a> d</p><p>e</p></div><p>f</p>";
+		assertEquals("<p>a</p><div></div>", new HtmlCleaner(HtmlCleaner.truncate("p:has(> a.citaBibtex)")).clean(html));
+		assertEquals("<p>a</p><div><p>b </p></div>", new HtmlCleaner(HtmlCleaner.truncate("a.citaBibtex")).clean(html));
+		assertEquals(html, new HtmlCleaner(HtmlCleaner.truncate("a.other")).clean(html));
+	}
+}
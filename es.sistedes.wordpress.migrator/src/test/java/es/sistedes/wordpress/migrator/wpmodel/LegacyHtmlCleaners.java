@@ -0,0 +1,96 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+ * The regular expressions that cleaned the descriptions of the editions and the
+ * contents of the preliminaries before {@link HtmlCleaner}, kept as the
+ * reference for the equivalence tests and the benchmark. As in the original
+ * code, each expression is compiled every time it is applied.
+ *
+ * @author agomez
+ *
+ */
+public class LegacyHtmlCleaners {
+
+	private static final String BIBTEX_TAG = "<p>Ver la referencia en formato <a href=\"#\"  class=\"citaBibtex\">Bibtex</a></p>";
+
+	/**
+	 * Applies the expressions of <code>Edition.getDescription()</code> and then
+	 * removes the Bibtex reference as <code>Community.from()</code> did
+	 *
+	 * @param description
+	 * @return
+	 */
+	public static String editionDescription(String description) {
+		description = description.replaceAll("<p>&nbsp;</p>", "").trim();
+		description = Pattern.compile("<(.*?)></\\1>", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<p>\\s*<em.*?>(?:.*?)\\(Eds?\\.\\), Actas de(?:.*?)</em>\\s*</p>", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<p>\\s*<i>(?:.*?)\\(Eds?\\.\\), Actas de(?:.*?)</i>\\s*</p>", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<ul.*?>\\s*<li>(?:<a .*?href=\"https?://biblioteca.sistedes.es\\S+\">.*?</li>)+\\s*</ul>", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<!-- \\[begin:sub_tracks_conferencia\\] -->(?:.*?)<!-- \\[end:sub_tracks_conferencia\\] -->", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<!-- \\[begin:cita-conferencia\\] -->(?:.*?)<!-- \\[end:cita-conferencia\\] -->", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile(" A continuación se detalla el contenido de las actas:", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = Pattern.compile("<ol\\s+id=\"articulo_a_conferencia_list\">(?:.*?)</ol>", Pattern.DOTALL).matcher(description).replaceAll("").trim();
+		description = description.replaceAll("<hr ?/>", "").trim();
+		if (description.contains(BIBTEX_TAG)) {
+			description = description.substring(0, description.indexOf(BIBTEX_TAG)).trim();
+		}
+		return description;
+	}
+
+	/**
+	 * Applies the expressions of <code>PreliminarsPublication</code>
+	 *
+	 * @param contents
+	 * @return
+	 */
+	public static String preliminarsContents(String contents) {
+		contents = contents.replaceAll("<p>&nbsp;</p>", "").trim();
+		contents = contents.replaceAll("&nbsp;", " ").trim();
+		contents = contents.replaceAll("[  ]+", " ").trim();
+		contents = Pattern.compile("\\s*style=\".*?\"", Pattern.DOTALL).matcher(contents).replaceAll("").trim();
+		contents = Pattern.compile("<(.+?)>\\s*</\\1>\\s*", Pattern.DOTALL).matcher(contents).replaceAll("").trim();
+		contents = Pattern.compile("<(:?[Hh]\\d)>(.*?)</\\1>", Pattern.DOTALL).matcher(contents).replaceAll("<h2>$2</h2>").trim();
+		contents = Pattern.compile("<[Pp]>\\s*<[Uu]>(.*?)</[Uu]>\\s*</[Pp]>", Pattern.DOTALL).matcher(contents).replaceAll("<h2>$1</h2>").trim();
+		contents = Pattern.compile("<[Pp]>\\s*<(:?STRONG|strong)>(.*?)</(:?STRONG|strong)>\\s*</[Pp]>", Pattern.DOTALL).matcher(contents).replaceAll("<h2>$2</h2>").trim();
+		contents = Pattern.compile("<[Uu]>(.*?)</[Uu]>", Pattern.DOTALL).matcher(contents).replaceAll("$1").trim();
+		contents = Pattern.compile("^\\s*$", Pattern.MULTILINE).matcher(contents).replaceAll("").trim();
+		return contents;
+	}
+
+	/**
+	 * Loads the given page of <code>src/test/resources/wordpress</code>
+	 *
+	 * @param page
+	 * @return
+	 * @throws IOException
+	 */
+	public static String load(String page) throws IOException {
+		try (InputStream in = LegacyHtmlCleaners.class.getResourceAsStream(page)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Returns the given fragment as serialized by Jsoup, so that the output of
+	 * the expressions (which keep the original markup) and the output of
+	 * {@link HtmlCleaner} (which serializes the DOM, e.g., <code>&lt;br
+	 * /&gt;</code> becomes <code>&lt;br&gt;</code>) can be compared
+	 *
+	 * @param html
+	 * @return
+	 */
+	public static String normalize(String html) {
+		Document document = Jsoup.parseBodyFragment(html);
+		document.outputSettings().prettyPrint(false);
+		return document.body().html().trim();
+	}
+}
@@ -0,0 +1,102 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The chain of rules that <code>Article.getTitle()</code> applied before
+ * {@link TitleNormalizer}, kept as the reference for the equivalence tests and
+ * the benchmark. As in the original code, each rule is compiled every time it
+ * is tried.
+ *
+ * @author agomez
+ *
+ */
+class LegacyTitleNormalizer {
+
+	/**
+	 * The tool demo rule as it was written, which (because of the
+	 * <code>[Dd]demo</code> typo) never matched a real title
+	 */
+	static final String ORIGINAL_TOOL_DEMO = "^«?(.*?)»?\\s*\\((:?[Tt]ool\\s*)[Dd]demo(?:straci[oó]n)?\\)\\s*$";
+
+	/**
+	 * The tool demo rule as it was meant to be, which is the one implemented by
+	 * {@link TitleNormalizer}
+	 */
+	static final String FIXED_TOOL_DEMO = "^«?(.*?)»?\\s*\\((?:[Tt]ool\\s*)?[Dd]emo(?:straci[oó]n)?\\)\\s*$";
+
+	// @formatter:off
+	private static final String[][] RULES = {
+			{ "tool-demo", null },
+			{ "tutorial", "^«?(.*?)»?\\s*\\([Tt]utorial\\)\\s*$" },
+			{ "work-in-progress", "^«?(.*?)»?\\s*\\([Ww]ork in [Pp]rogress\\)\\s*$" },
+			{ "trabajo-en-progreso", "^«?(.*?)»?\\s*\\([Tt]rabajo en [Pp]rogreso\\)\\s*$" },
+			{ "trabajo-original", "^«?(.*?)»?\\s*\\([Tt]rabajo [Oo]riginal\\)\\s*$" },
+			{ "resumen", "^«?(.*?)»?\\s*\\([Rr]esumen\\)\\s*$" },
+			{ "abstract", "^«?(.*?)»?\\s*\\([Aa]bstract\\)\\s*$" },
+			{ "summary", "^«?(.*?)»?\\s*\\([Ss]ummary\\)\\s*$" },
+			{ "extended-abstract", "^«?(.*?)»?\\s*\\([Ee]xtended [Aa]bstract\\)\\s*$" },
+			{ "relevante-ya-publicado", "^«?(.*?)»?\\s*\\(RELEVANTE YA PUBLICADO\\)\\s*$" },
+			{ "ya-publicado", "^«?(.*?)»?\\s*\\(YA PUBLICADO\\)\\s*$" },
+			{ "ya-publicado", "^«?(.*?)»?\\s*\\(YA PUBLICADO\\)\\s*$" },
+			{ "trabajo-ya-publicado", "^«?(.*?)»?\\s*\\(Trabajo ya publicado\\)\\s*$" },
+			{ "articulo-relevante", "^«?(.*?)»?\\s*\\([Aa]rtículo [Rr]elevante\\)\\s*$" },
+			{ "trabajo-alto-nivel", "^«?(.*?)»?\\s*\\(Trabajo de alto nivel\\)\\s*$" },
+			{ "prefix-articulo-relevante", "^\\([Aa]rtículo [Rr]elevante\\)\\s*«?(.*?)»?\\s*$" },
+			{ "prefix-trabajo-relevante", "^\\s*[Tt]rabajo [Rr]elevante\\s*\\W*\\s*«?(.*?)»?\\s*$" },
+			{ "prefix-trabajo-relevante-parenthesized", "^\\([Tt]rabajo [Rr]elevante\\)\\s*«?(.*?)»?\\s*$" },
+			{ "prefix-articulo-relevante-uppercase", "^ART[IÍ]CULO RELEVANTE:\\s*«?(.*?)»?\\s*$" },
+			{ "prefix-extended-abstract", "^[Ee]xtended [Aa]bstract of\\s*«?(.*?)»?\\s*$" } };
+	// @formatter:on
+
+	private final String toolDemo;
+
+	LegacyTitleNormalizer(String toolDemo) {
+		this.toolDemo = toolDemo;
+	}
+
+	/**
+	 * Returns the name of the rule that matched and the normalized title, or
+	 * <code>null</code> and the given title if no rule matched
+	 *
+	 * @param title
+	 * @return
+	 */
+	String[] normalize(String title) {
+		for (String[] rule : RULES) {
+			Matcher matcher = Pattern.compile(rule[1] != null ? rule[1] : toolDemo).matcher(title);
+			if (matcher.matches()) {
+				return new String[] { rule[0], matcher.group(1) };
+			}
+		}
+		return new String[] { null, title };
+	}
+
+	/**
+	 * Loads the (trimmed) titles of the corpus in
+	 * <code>src/test/resources/wordpress/titles.txt</code>
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	static List<String> loadTitles() throws IOException {
+		List<String> titles = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				LegacyTitleNormalizer.class.getResourceAsStream("/wordpress/titles.txt"), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.startsWith("#") && !line.trim().isEmpty()) {
+					titles.add(line.trim());
+				}
+			}
+		}
+		return titles;
+	}
+}
@@ -0,0 +1,50 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares normalizing the whole title corpus with {@link TitleNormalizer}
+ * against the chain of rules it replaced (see {@link LegacyTitleNormalizer}).
+ * Run with <code>mvn -Pjmh verify -Djmh.args="TitleNormalizer"</code>.
+ *
+ * @author agomez
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TitleNormalizerBenchmark {
+
+	private final LegacyTitleNormalizer legacy = new LegacyTitleNormalizer(LegacyTitleNormalizer.FIXED_TOOL_DEMO);
+	private List<String> titles;
+
+	@Setup
+	public void setup() throws IOException {
+		titles = LegacyTitleNormalizer.loadTitles();
+	}
+
+	@Benchmark
+	public void legacyRules(Blackhole blackhole) {
+		for (String title : titles) {
+			blackhole.consume(legacy.normalize(title));
+		}
+	}
+
+	@Benchmark
+	public void titleNormalizer(Blackhole blackhole) {
+		for (String title : titles) {
+			blackhole.consume(TitleNormalizer.normalize(title));
+		}
+	}
+}
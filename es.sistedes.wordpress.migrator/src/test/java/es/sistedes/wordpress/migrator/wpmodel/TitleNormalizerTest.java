@@ -0,0 +1,127 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link TitleNormalizer} gives the same results as the chain of
+ * rules it replaced (see {@link LegacyTitleNormalizer}), on the title corpus
+ * and on every combination of annotations
+ *
+ * @author agomez
+ *
+ */
+public class TitleNormalizerTest {
+
+	private static final String[] PREFIXES = { "", "(Artículo relevante) ", "(artículo Relevante)", "Trabajo relevante: ",
+			"Trabajo Relevante - ", "trabajo relevante.", "(Trabajo relevante) ", "ARTÍCULO RELEVANTE: ", "ARTICULO RELEVANTE:",
+			"Extended abstract of ", "extended Abstract of" };
+
+	private static final String[] SUFFIXES = { "", "(Tool demo)", "(Tool Demo)", "(tool demo)", "(ToolDemo)", "(Demo)",
+			"(demo)", "(Demostración)", "(demostracion)", "(Tool demostración)", "(Tool Ddemo)", "(Tutorial)",
+			"(Work in Progress)", "(Trabajo en progreso)", "(Trabajo Original)", "(Resumen)", "(Abstract)", "(Summary)",
+			"(Extended Abstract)", "(RELEVANTE YA PUBLICADO)", "(YA PUBLICADO)", "(Trabajo ya publicado)",
+			"(Artículo relevante)", "(Trabajo de alto nivel)", "(Otro)", "(Demo session)" };
+
+	private static final String[] TITLES = { "A model-driven approach", "«Quoted title»", "Title (with parens)",
+			"Title (Resumen) more", "«Title» with «quotes»", "x", "" };
+
+	@Test
+	public void testCorpus() throws IOException {
+		LegacyTitleNormalizer legacy = new LegacyTitleNormalizer(LegacyTitleNormalizer.FIXED_TOOL_DEMO);
+		for (String title : LegacyTitleNormalizer.loadTitles()) {
+			assertSame(title, legacy.normalize(title), TitleNormalizer.normalize(title));
+		}
+	}
+
+	@Test
+	public void testCombinations() {
+		LegacyTitleNormalizer legacy = new LegacyTitleNormalizer(LegacyTitleNormalizer.FIXED_TOOL_DEMO);
+		for (String title : combinations()) {
+			assertSame(title, legacy.normalize(title), TitleNormalizer.normalize(title));
+		}
+	}
+
+	/**
+	 * The only change with respect to the original rules is the tool demo rule,
+	 * which now strips the tool demo annotations instead of leaving the title
+	 * untouched (the original rule only matched the misspelled
+	 * <code>Ddemo</code>, which no real title has)
+	 */
+	@Test
+	public void testChangesToTheOriginalRules() throws IOException {
+		LegacyTitleNormalizer original = new LegacyTitleNormalizer(LegacyTitleNormalizer.ORIGINAL_TOOL_DEMO);
+		int demos = 0;
+		for (String title : LegacyTitleNormalizer.loadTitles()) {
+			String[] expected = original.normalize(title);
+			TitleNormalizer.Result actual = TitleNormalizer.normalize(title);
+			assertFalse(title, "tool-demo".equals(expected[0]));
+			if ("tool-demo".equals(actual.getRule())) {
+				demos++;
+			} else {
+				assertSame(title, expected, actual);
+			}
+		}
+		assertEquals(10, demos);
+		int misspelled = 0;
+		for (String title : combinations()) {
+			String[] expected = original.normalize(title);
+			TitleNormalizer.Result actual = TitleNormalizer.normalize(title);
+			if ("tool-demo".equals(expected[0])) {
+				assertTrue(title, title.endsWith("(Tool Ddemo)"));
+				misspelled++;
+			} else if (!"tool-demo".equals(actual.getRule())) {
+				assertSame(title, expected, actual);
+			}
+		}
+		assertTrue(misspelled > 0);
+	}
+
+	@Test
+	public void testToolDemos() {
+		assertNormalized("tool-demo", "Mutation testing of ATL model transformations", "Mutation testing of ATL model transformations (Tool demo)");
+		assertNormalized("tool-demo", "MuTool: mutación de modelos ATL", "«MuTool: mutación de modelos ATL» (Tool Demo)");
+		assertNormalized("tool-demo", "CAMEA: una herramienta", "CAMEA: una herramienta (ToolDemo)");
+		assertNormalized("tool-demo", "EMF Views", "EMF Views (Demo)");
+		assertNormalized("tool-demo", "Wodel-Test", "Wodel-Test (demo)");
+		assertNormalized("tool-demo", "Una herramienta de variabilidad", "Una herramienta de variabilidad (Demostración)");
+		assertNormalized("tool-demo", "Una herramienta de variabilidad", "Una herramienta de variabilidad (demostracion)");
+		assertNormalized("resumen", "Verificación de procesos (Tool demo)", "Verificación de procesos (Tool demo) (Resumen)");
+		assertNormalized(null, "Relevant work on tool demos (Demo session)", "Relevant work on tool demos (Demo session)");
+		assertNormalized(null, "A study on demos (Tool demos)", "A study on demos (Tool demos)");
+		assertNormalized(null, "Demo: a web-based editor for DSLs", "Demo: a web-based editor for DSLs");
+	}
+
+	private static void assertNormalized(String rule, String expected, String title) {
+		TitleNormalizer.Result result = TitleNormalizer.normalize(title);
+		assertEquals(title, rule, result.getRule());
+		assertEquals(title, expected, result.getTitle());
+	}
+
+	private static void assertSame(String title, String[] expected, TitleNormalizer.Result actual) {
+		assertEquals(title, expected[0], actual.getRule());
+		assertEquals(title, expected[1], actual.getTitle());
+	}
+
+	static List<String> combinations() {
+		List<String> titles = new ArrayList<>();
+		for (String prefix : PREFIXES) {
+			for (String title : TITLES) {
+				for (String suffix : SUFFIXES) {
+					for (String last : Arrays.asList("", " (Resumen)", " (Tool demo)")) {
+						titles.add((prefix + title + " " + suffix + last).trim());
+					}
+				}
+			}
+		}
+		return titles;
+	}
+}
@@ -0,0 +1,77 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares parsing a page of Wordpress articles by reading it into a
+ * {@link String} and unescaping it with
+ * {@link StringEscapeUtils#unescapeXml(String)} (the previous path) against
+ * streaming it through an {@link XmlUnescapingReader}. Run with
+ * <code>mvn -Pjmh verify -Djmh.args="XmlUnescapingReader -prof gc"</code> to
+ * also compare the allocation rates.
+ *
+ * @author agomez
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class XmlUnescapingReaderBenchmark {
+
+	/**
+	 * Number of articles in the page (Wordpress returns up to 100)
+	 */
+	@Param({ "10", "100" })
+	private int articles;
+
+	private final Gson gson = new Gson();
+	private byte[] payload;
+
+	@Setup
+	public void setup() throws IOException {
+		JsonArray recorded = JsonParser.parseString(XmlUnescapingReaderTest.load("/wordpress/articles.json")).getAsJsonArray();
+		JsonArray page = new JsonArray();
+		for (int i = 0; i < articles; i++) {
+			page.add(recorded.get(i % recorded.size()));
+		}
+		payload = page.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private Reader open() {
+		return new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Article[] unescapeString() throws IOException {
+		try (Reader reader = open()) {
+			return gson.fromJson(StringEscapeUtils.unescapeXml(IOUtils.toString(reader)), Article[].class);
+		}
+	}
+
+	@Benchmark
+	public Article[] unescapingReader() throws IOException {
+		try (Reader reader = open()) {
+			return gson.fromJson(new XmlUnescapingReader(reader), Article[].class);
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package es.sistedes.wordpress.migrator.wpmodel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+/**
+ * Checks that {@link XmlUnescapingReader} produces exactly the same output as
+ * {@link StringEscapeUtils#unescapeXml(String)}, whatever the sizes of the
+ * reads and of the chunks returned by the underlying {@link Reader} (except
+ * for out of range code points, see {@link #testOutOfRangeCodePoints()})
+ *
+ * @author agomez
+ *
+ */
+public class XmlUnescapingReaderTest {
+
+	static final String[] PAYLOADS = { "/wordpress/editions.json", "/wordpress/tracks.json", "/wordpress/articles.json" };
+
+	private static final String[] FRAGMENTS = { "&", "&amp;", "&lt;", "&gt;", "&quot;", "&apos;", "&amp", "&AMP;", "&nbsp;",
+			"&#", "&#;", "&#x;", "&#38;", "&#x26;", "&#X26;", "&#xZZ;", "&#8211;", "&#128512;", "&#x1F680;", "&#1114111;",
+			"&#99999999999999999999;", "&#0000000000000000000000000000065;", "&#x" + StringUtils.repeat('0', 10000) + "41;", "&&#38;", "&#38;amp;", ";", "#",
+			"x", "a", "á", "\n", "\"", "😀" };
+
+	static String load(String payload) throws IOException {
+		try (InputStream in = XmlUnescapingReaderTest.class.getResourceAsStream(payload)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testPayloads() throws IOException {
+		for (String payload : PAYLOADS) {
+			String escaped = load(payload);
+			assertEquals(payload, StringEscapeUtils.unescapeXml(escaped), readAll(new StringReader(escaped), new Random(0), 8192));
+		}
+	}
+
+	@Test
+	public void testPayloadsParseToTheSameJson() throws IOException {
+		for (String payload : PAYLOADS) {
+			try (Reader expected = new StringReader(StringEscapeUtils.unescapeXml(load(payload)));
+					Reader actual = new XmlUnescapingReader(new InputStreamReader(getClass().getResourceAsStream(payload), StandardCharsets.UTF_8))) {
+				assertEquals(payload, JsonParser.parseReader(expected), JsonParser.parseReader(actual));
+			}
+		}
+	}
+
+	@Test
+	public void testPayloadsBind() throws IOException {
+		Gson gson = new Gson();
+		String tracks = load("/wordpress/tracks.json");
+		assertEquals(gson.toJson(gson.fromJson(StringEscapeUtils.unescapeXml(tracks), Track[].class)),
+				gson.toJson(gson.fromJson(new XmlUnescapingReader(new StringReader(tracks)), Track[].class)));
+		String articles = load("/wordpress/articles.json");
+		assertEquals(gson.toJson(gson.fromJson(StringEscapeUtils.unescapeXml(articles), Article[].class)),
+				gson.toJson(gson.fromJson(new XmlUnescapingReader(new StringReader(articles)), Article[].class)));
+	}
+
+	@Test
+	public void testOutOfRangeCodePoints() throws IOException {
+		// StringEscapeUtils.unescapeXml throws an IllegalArgumentException instead
+		String escaped = "&#1114112; &#x110000; &#x7FFFFFFF;";
+		assertEquals(escaped, readAll(new StringReader(escaped), new Random(0), 8192));
+	}
+
+	@Test
+	public void testRandomReadAndChunkSizes() throws IOException {
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder builder = new StringBuilder();
+			int fragments = random.nextInt(i % 10 == 0 ? 5000 : 100);
+			for (int j = 0; j < fragments; j++) {
+				builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			String escaped = builder.toString();
+			int readSize = 1 + random.nextInt(random.nextBoolean() ? 8 : 20000);
+			assertEquals(escaped, StringEscapeUtils.unescapeXml(escaped), readAll(new ChunkedReader(escaped, random), random, readSize));
+		}
+	}
+
+	@Test
+	public void testPayloadsWithRandomReadAndChunkSizes() throws IOException {
+		Random random = new Random(7);
+		for (String payload : PAYLOADS) {
+			String escaped = load(payload);
+			for (int i = 0; i < 200; i++) {
+				int readSize = 1 + random.nextInt(random.nextBoolean() ? 8 : 20000);
+				assertEquals(payload, StringEscapeUtils.unescapeXml(escaped), readAll(new ChunkedReader(escaped, random), random, readSize));
+			}
+		}
+	}
+
+	/**
+	 * Reads everything, mixing single char reads with reads of up to
+	 * <code>maxReadSize</code> chars at random offsets
+	 */
+	private static String readAll(Reader in, Random random, int maxReadSize) throws IOException {
+		StringBuilder result = new StringBuilder();
+		try (Reader reader = new XmlUnescapingReader(in)) {
+			char[] buffer = new char[maxReadSize + 16];
+			while (true) {
+				if (random.nextInt(10) == 0) {
+					int c = reader.read();
+					if (c == -1) {
+						break;
+					}
+					result.append((char) c);
+				} else {
+					int off = random.nextInt(16);
+					int read = reader.read(buffer, off, 1 + random.nextInt(maxReadSize));
+					if (read == -1) {
+						break;
+					}
+					result.append(buffer, off, read);
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * A {@link Reader} that returns random (and often tiny) chunks, as a slow
+	 * network stream would
+	 */
+	private static class ChunkedReader extends Reader {
+		private final String contents;
+		private final Random random;
+		private int pos;
+
+		private ChunkedReader(String contents, Random random) {
+			this.contents = contents;
+			this.random = random;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (pos >= contents.length()) {
+				return -1;
+			}
+			int n = Math.min(Math.min(len, contents.length() - pos), 1 + random.nextInt(random.nextBoolean() ? 3 : 10000));
+			contents.getChars(pos, pos + n, cbuf, off);
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}